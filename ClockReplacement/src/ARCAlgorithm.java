@@ -0,0 +1,199 @@
+/**
+ * Implements Adaptive Replacement Cache (ARC) page replacement (Megiddo and Modha).
+ * Resident pages live on T1 (seen once recently) or T2 (seen at least twice), and
+ * recently evicted page numbers are remembered on the ghost lists B1 and B2.
+ * Ghost hits shift the target size p of T1, adapting between recency and frequency.
+ * All four lists are intrusive doubly linked lists over int arrays, so every step is O(1).
+ */
+public class ARCAlgorithm extends AbstractReplacementPolicy {
+
+    private static final int NIL = -1;
+
+    // List identifiers
+    private static final byte T1 = 0;
+    private static final byte T2 = 1;
+    private static final byte B1 = 2;
+    private static final byte B2 = 3;
+
+    private IntIntHashMap nodeIndex; // Maps page number -> node, for resident and ghost pages
+    private int[] nodePage;
+    private int[] nodeFrame; // Frame holding the node's page, or NIL for ghosts
+    private byte[] nodeList; // Which list the node is on
+    private int[] prev; // Neighbor towards the MRU end
+    private int[] next; // Neighbor towards the LRU end
+    private int[] frameNode; // Node whose page is in each frame
+
+    private int[] head = { NIL, NIL, NIL, NIL }; // MRU end of each list
+    private int[] tail = { NIL, NIL, NIL, NIL }; // LRU end of each list
+    private int[] size = new int[4];
+
+    private int[] freeNodes; // Stack of unused node slots
+    private int freeNodeCount;
+    private int usedFrames; // Frames [0, usedFrames) have been filled at least once
+    private int target; // Adaptive target size p for T1
+
+    /**
+     * Constructor for ARCAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     */
+    public ARCAlgorithm(int numFrames) {
+        super(numFrames);
+        int capacity = 2 * numFrames; // Resident plus ghost entries never exceed 2c
+        this.nodeIndex = new IntIntHashMap(capacity);
+        this.nodePage = new int[capacity];
+        this.nodeFrame = new int[capacity];
+        this.nodeList = new byte[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.frameNode = new int[numFrames];
+        this.freeNodes = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeNodes[i] = capacity - 1 - i;
+        }
+        this.freeNodeCount = capacity;
+        this.usedFrames = 0;
+        this.target = 0;
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int node = nodeIndex.get(pageNumber);
+        if (node != NIL && nodeList[node] <= T2) {
+            // Case I: resident hit, promote to the MRU end of T2
+            unlink(node);
+            pushFront(T2, node);
+            return recordHit(pageNumber, nodeFrame[node]);
+        }
+
+        recordFault(pageNumber);
+        int frame;
+        if (node != NIL) {
+            // Cases II and III: ghost hit, adapt the target and bring the page back into T2
+            boolean inB2 = nodeList[node] == B2;
+            if (!inB2) {
+                target = Math.min(numFrames, target + Math.max(size[B2] / size[B1], 1));
+            } else {
+                target = Math.max(0, target - Math.max(size[B1] / size[B2], 1));
+            }
+            frame = replace(inB2);
+            unlink(node);
+            pushFront(T2, node);
+        } else {
+            // Case IV: page not seen recently
+            int l1 = size[T1] + size[B1];
+            if (l1 == numFrames) {
+                if (size[T1] < numFrames) {
+                    dropNode(tail[B1]);
+                    frame = replace(false);
+                } else {
+                    // B1 is empty, so the LRU page of T1 is discarded without a ghost
+                    int victim = tail[T1];
+                    frame = nodeFrame[victim];
+                    evictFrame(frame);
+                    dropNode(victim);
+                }
+            } else {
+                int total = l1 + size[T2] + size[B2];
+                if (total >= numFrames) {
+                    if (total == 2 * numFrames) {
+                        dropNode(tail[B2]);
+                    }
+                    frame = replace(false);
+                } else {
+                    frame = usedFrames++; // Cache is not full yet
+                }
+            }
+            node = freeNodes[--freeNodeCount];
+            nodePage[node] = pageNumber;
+            nodeIndex.put(pageNumber, node);
+            pushFront(T1, node);
+        }
+
+        nodeFrame[node] = frame;
+        frameNode[frame] = node;
+        return loadFrame(pageNumber, frame);
+    }
+
+    /**
+     * Evicts the LRU page of T1 or T2 to its ghost list, following the ARC REPLACE rule.
+     * @param inB2 Whether the faulting page was found on B2.
+     * @return The frame that was freed.
+     */
+    private int replace(boolean inB2) {
+        int victim;
+        byte ghostList;
+        if (size[T1] >= 1 && ((inB2 && size[T1] == target) || size[T1] > target)) {
+            victim = tail[T1];
+            ghostList = B1;
+        } else {
+            victim = tail[T2];
+            ghostList = B2;
+        }
+        unlink(victim);
+        pushFront(ghostList, victim);
+        int frame = nodeFrame[victim];
+        nodeFrame[victim] = NIL;
+        evictFrame(frame);
+        return frame;
+    }
+
+    /**
+     * Removes a node from its list and from the page index entirely.
+     */
+    private void dropNode(int node) {
+        unlink(node);
+        nodeIndex.remove(nodePage[node]);
+        freeNodes[freeNodeCount++] = node;
+    }
+
+    private void unlink(int node) {
+        byte list = nodeList[node];
+        int p = prev[node];
+        int n = next[node];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head[list] = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail[list] = p;
+        }
+        size[list]--;
+    }
+
+    private void pushFront(byte list, int node) {
+        nodeList[node] = list;
+        prev[node] = NIL;
+        next[node] = head[list];
+        if (head[list] != NIL) {
+            prev[head[list]] = node;
+        } else {
+            tail[list] = node;
+        }
+        head[list] = node;
+        size[list]++;
+    }
+
+    /**
+     * Reports 1 for frames whose page is on T2, the frequency side of the cache.
+     */
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return pages[frame] != EMPTY && nodeList[frameNode[frame]] == T2 ? 1 : 0;
+    }
+
+    /**
+     * Gets the current adaptive target size for T1.
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return "ARC";
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+/**
+ * Shared frame table and statistics for the replacement engines.
+ * Subclasses decide which frame to use; this class records what happened to it.
+ */
+public abstract class AbstractReplacementPolicy implements ReplacementPolicy {
+
+    protected static final int EMPTY = -1; // Page number stored in an empty frame
+
+    protected int[] pages; // Page number held by each frame, -1 if empty
+    protected int numFrames;
+    protected long pageHits;
+    protected long pageFaults;
+
+    // Details of the most recent request, kept so messages can be built on demand
+    protected int lastOutcome = -1;
+    protected int lastPage;
+    protected int lastFrame;
+    protected int lastVictimPage = EMPTY;
+
+    /**
+     * Constructor for AbstractReplacementPolicy.
+     * @param numFrames The number of frames available in memory.
+     */
+    protected AbstractReplacementPolicy(int numFrames) {
+        if (numFrames <= 0) {
+            throw new IllegalArgumentException("Number of frames must be positive.");
+        }
+        this.numFrames = numFrames;
+        this.pages = new int[numFrames];
+        Arrays.fill(pages, EMPTY); // Initialize with empty frames
+    }
+
+    /**
+     * Rejects a negative page number, which would be confused with an empty frame.
+     * Every engine calls this before looking a page up.
+     */
+    protected static void checkPageNumber(int pageNumber) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number cannot be negative.");
+        }
+    }
+
+    /**
+     * Records a hit on a resident page.
+     * @return {@link #HIT}
+     */
+    protected final int recordHit(int pageNumber, int frame) {
+        pageHits++;
+        lastPage = pageNumber;
+        lastFrame = frame;
+        lastVictimPage = EMPTY;
+        return lastOutcome = HIT;
+    }
+
+    /**
+     * Starts handling a page fault. Must be called before {@link #evictFrame(int)} and {@link #loadFrame(int, int)}.
+     */
+    protected final void recordFault(int pageNumber) {
+        pageFaults++;
+        lastPage = pageNumber;
+        lastVictimPage = EMPTY;
+    }
+
+    /**
+     * Empties a frame, remembering its page as the victim of the current fault.
+     * @return The page that was evicted.
+     */
+    protected final int evictFrame(int frame) {
+        int oldPage = pages[frame];
+        pages[frame] = EMPTY;
+        lastVictimPage = oldPage;
+        return oldPage;
+    }
+
+    /**
+     * Loads the faulting page into a frame, evicting whatever it still holds.
+     * @return {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    protected final int loadFrame(int pageNumber, int frame) {
+        if (pages[frame] != EMPTY) {
+            evictFrame(frame);
+        }
+        pages[frame] = pageNumber;
+        lastFrame = frame;
+        return lastOutcome = (lastVictimPage == EMPTY ? FAULT_EMPTY : FAULT_REPLACED);
+    }
+
+    @Override
+    public String describeLastRequest() {
+        switch (lastOutcome) {
+            case HIT:
+                return "Hit for page " + lastPage;
+            case FAULT_EMPTY:
+                return "Fault - Loaded page " + lastPage + " into empty frame " + lastFrame;
+            case FAULT_REPLACED:
+                return "Fault - Replaced page " + lastVictimPage + " with page " + lastPage + " at frame " + lastFrame;
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public int getPageAt(int frame) {
+        return pages[frame];
+    }
+
+    @Override
+    public int getLastFrame() {
+        return lastFrame;
+    }
+
+    @Override
+    public int getLastVictimPage() {
+        return lastVictimPage;
+    }
+
+    @Override
+    public long getPageHits() {
+        return pageHits;
+    }
+
+    @Override
+    public long getPageFaults() {
+        return pageFaults;
+    }
+
+    @Override
+    public int getNumFrames() {
+        return numFrames;
+    }
+}
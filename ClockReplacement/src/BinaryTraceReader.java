@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a binary trace written by {@link BinaryTraceWriter}.
+ * The file is mapped with FileChannel.map and records are decoded straight from the mapping into
+ * primitives, so replaying creates no object per record. Files larger than one mapping are read
+ * through a window of whole blocks that is remapped as the reader moves on. The block index lets
+ * {@link #seek(long)} jump to any record after decoding at most one block.
+ */
+public class BinaryTraceReader implements PageTrace {
+
+    /** Largest region mapped at once. */
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final int blockSize;
+    private final long recordCount;
+    private final long indexOffset; // Also the end of the last block
+    private final long[] blockOffsets;
+
+    private MappedByteBuffer window;
+    private long windowStart; // File offset of the first mapped byte
+    private long windowEnd;
+
+    private long position; // Index of the next record
+    private int leftInBlock;
+    private long previous;
+    private boolean lastWrite;
+
+    /**
+     * Constructor for BinaryTraceReader.
+     * @param path The binary trace file.
+     */
+    public BinaryTraceReader(String path) throws IOException {
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BinaryTraceWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != BinaryTraceWriter.PAGE_MAGIC) {
+                throw new IOException("Not a binary page trace: " + path);
+            }
+            if (header.getInt(4) != BinaryTraceWriter.VERSION) {
+                throw new IOException("Unsupported binary trace version " + header.getInt(4) + ".");
+            }
+            this.blockSize = header.getInt(8);
+            this.recordCount = header.getLong(16);
+            this.indexOffset = header.getLong(24);
+            if (blockSize <= 0 || blockSize > BinaryTraceWriter.MAX_BLOCK_SIZE || recordCount < 0
+                    || indexOffset < BinaryTraceWriter.HEADER_SIZE
+                    || indexOffset + (recordCount + blockSize - 1) / blockSize * Long.BYTES > channel.size()) {
+                throw new IOException("Binary trace is truncated or was not closed: " + path);
+            }
+
+            this.blockOffsets = new long[(int) ((recordCount + blockSize - 1) / blockSize)];
+            ByteBuffer index = ByteBuffer.allocate(blockOffsets.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(index, indexOffset);
+            index.asLongBuffer().get(blockOffsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readFully(ByteBuffer dest, long offset) throws IOException {
+        while (dest.hasRemaining()) {
+            int read = channel.read(dest, offset + dest.position());
+            if (read < 0) {
+                throw new IOException("Binary trace is truncated.");
+            }
+        }
+        dest.flip();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < recordCount;
+    }
+
+    @Override
+    public int nextInt() {
+        long pageNumber = nextLong();
+        if (pageNumber > Integer.MAX_VALUE || pageNumber < Integer.MIN_VALUE) {
+            throw new NumberFormatException("Page number out of range in trace.");
+        }
+        return (int) pageNumber;
+    }
+
+    @Override
+    public long nextLong() {
+        if (position >= recordCount) {
+            throw new NoSuchElementException("End of trace reached.");
+        }
+        if (leftInBlock == 0) {
+            enterBlock((int) (position / blockSize));
+        }
+        long code = readVarLong();
+        long zigzag = code >>> 1;
+        previous += (zigzag >>> 1) ^ -(zigzag & 1);
+        lastWrite = (code & 1) != 0;
+        leftInBlock--;
+        position++;
+        return previous;
+    }
+
+    @Override
+    public boolean isLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Moves to a record, so the next call to {@link #nextInt()} returns it.
+     * @param record The index of the record, from 0 to {@link #getRecordCount()}.
+     */
+    public void seek(long record) {
+        if (record < 0 || record > recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " is outside the trace.");
+        }
+        if (record == recordCount) {
+            position = record;
+            leftInBlock = 0;
+            return;
+        }
+        int block = (int) (record / blockSize);
+        enterBlock(block);
+        position = (long) block * blockSize;
+        while (position < record) {
+            nextLong();
+        }
+    }
+
+    /**
+     * Positions the window at the start of a block, remapping if the block is not wholly mapped.
+     */
+    private void enterBlock(int block) {
+        long start = blockOffsets[block];
+        long end = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : indexOffset;
+        if (window == null || start < windowStart || end > windowEnd) {
+            windowStart = start;
+            windowEnd = Math.min(indexOffset, start + MAX_WINDOW);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        window.position((int) (start - windowStart));
+        leftInBlock = (int) Math.min(blockSize, recordCount - (long) block * blockSize);
+        previous = 0;
+    }
+
+    private long readVarLong() {
+        byte b = window.get();
+        if (b >= 0) {
+            return b; // Most deltas fit in one byte
+        }
+        long value = b & 0x7F;
+        int shift = 7;
+        do {
+            b = window.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null; // The mapping itself is released when the buffer is collected
+        channel.close();
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes page references in a compact binary trace format that {@link BinaryTraceReader} maps into memory.
+ *
+ * Layout, with fixed-width fields little-endian:
+ *   header   int magic "PGTR", int version, int records per block, int reserved,
+ *            long record count, long offset of the block index
+ *   blocks   one varint per record: the zigzag-encoded difference from the previous page number,
+ *            shifted left one bit with the write flag in bit 0. Each block starts again from 0,
+ *            so any block can be decoded on its own.
+ *   index    one long per block: the file offset where the block starts
+ * Page numbers close to their predecessor, as in most reference strings, take one or two bytes.
+ * Usage: java BinaryTraceWriter &lt;textTrace | -&gt; &lt;binaryTrace&gt; [recordsPerBlock]
+ */
+public class BinaryTraceWriter implements Closeable {
+
+    static final int PAGE_MAGIC = 'P' | 'G' << 8 | 'T' << 16 | 'R' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    /** Records per block used by {@link #BinaryTraceWriter(String)}. */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    /** Largest block size accepted, which keeps every block far smaller than a reader's mapped window. */
+    public static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private final int blockSize;
+    private long flushedBytes; // Bytes already written to the channel
+    private long[] blockOffsets = new long[64];
+    private int blockCount;
+    private int leftInBlock;
+    private long previous;
+    private long recordCount;
+
+    /**
+     * Constructor for BinaryTraceWriter with the default block size.
+     * @param path The file to create, replacing any existing file.
+     */
+    public BinaryTraceWriter(String path) throws IOException {
+        this(path, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor for BinaryTraceWriter.
+     * @param path The file to create, replacing any existing file.
+     * @param blockSize The number of records per block; smaller blocks make seeking finer and the index larger.
+     */
+    public BinaryTraceWriter(String path, int blockSize) throws IOException {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Records per block must be between 1 and " + MAX_BLOCK_SIZE + ".");
+        }
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.position(HEADER_SIZE); // Filled in by close() once the counts are known
+    }
+
+    /**
+     * Appends a read of a page.
+     */
+    public void write(long pageNumber) throws IOException {
+        write(pageNumber, false);
+    }
+
+    /**
+     * Appends a reference to a page.
+     * @param pageNumber The page number; the difference from the previous one must lie within +/-2^61.
+     * @param write Whether the reference modifies the page.
+     */
+    public void write(long pageNumber, boolean write) throws IOException {
+        if (leftInBlock == 0) {
+            startBlock();
+        }
+        long delta = pageNumber - previous;
+        if (delta > 1L << 61 || delta < -(1L << 61)) {
+            throw new IllegalArgumentException("Page number " + pageNumber + " is too far from the previous one to encode.");
+        }
+        long zigzag = (delta << 1) ^ (delta >> 63);
+        writeVarLong(zigzag << 1 | (write ? 1 : 0));
+        previous = pageNumber;
+        leftInBlock--;
+        recordCount++;
+    }
+
+    private void startBlock() throws IOException {
+        if (blockCount == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+        }
+        blockOffsets[blockCount++] = flushedBytes + buffer.position();
+        leftInBlock = blockSize;
+        previous = 0;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        if (buffer.remaining() < 10) {
+            flush();
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushedBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the block index and the header, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = flushedBytes + buffer.position();
+            for (int i = 0; i < blockCount; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(blockOffsets[i]);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(PAGE_MAGIC).putInt(VERSION).putInt(blockSize).putInt(0);
+            header.putLong(recordCount).putLong(indexOffset);
+            header.flip();
+            long offset = 0;
+            while (header.hasRemaining()) {
+                offset += channel.write(header, offset);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Tells whether the first four bytes of a file are the magic number of a binary page trace.
+     */
+    static boolean hasPageMagic(byte[] start) {
+        return ByteBuffer.wrap(start).order(ByteOrder.LITTLE_ENDIAN).getInt(0) == PAGE_MAGIC;
+    }
+
+    /**
+     * Converts a text trace, or a binary one, into a new binary trace.
+     * @return The number of references written.
+     */
+    public static long convert(String source, String dest, int blockSize) throws IOException {
+        try (PageTrace trace = PageTrace.open(source);
+             BinaryTraceWriter writer = new BinaryTraceWriter(dest, blockSize)) {
+            while (trace.hasNext()) {
+                long pageNumber = trace.nextLong();
+                writer.write(pageNumber, trace.isLastWrite());
+            }
+            return writer.getRecordCount();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java BinaryTraceWriter <textTrace | -> <binaryTrace> [recordsPerBlock]");
+            System.exit(2);
+        }
+        try {
+            int blockSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BLOCK_SIZE;
+            long records = convert(args[0], args[1], blockSize);
+            long bytes = new File(args[1]).length();
+            System.err.printf("Wrote %d references in %d bytes (%.2f bytes per reference)%n", records, bytes,
+                    records == 0 ? 0.0 : (double) bytes / records);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -2,123 +2,324 @@ import java.util.Arrays;
 
 /**
  * Implements the Clock Page Replacement Algorithm.
+ * Frames are stored as a struct of arrays: page numbers in an int array and
+ * reference bits packed 64 to a long, so the request path never allocates.
+ * The number of frames can be changed between requests with {@link #resize(int)}, and
+ * {@link ClockMetrics} can be attached to record sweep lengths and other per-request detail.
  */
-public class ClockAlgorithm {
+public class ClockAlgorithm extends AbstractReplacementPolicy {
 
-    private ClockFrame[] frames;
-    private int numFrames;
+    private long[] referenceBits; // One reference bit per frame, 64 frames per word
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private int[] freeFrames; // Stack of empty frames, filled before anything is evicted
+    private int freeCount;
     private int clockHand;
-    private int pageHits;
-    private int pageFaults;
+    private int lastSweepLength; // Frames the hand passed over in the most recent sweep
+    private ClockMetrics metrics; // Null while instrumentation is off
 
     /**
      * Constructor for ClockAlgorithm.
      * @param numFrames The number of frames available in memory.
      */
     public ClockAlgorithm(int numFrames) {
-        if (numFrames <= 0) {
-            throw new IllegalArgumentException("Number of frames must be positive.");
-        }
-        this.numFrames = numFrames;
-        this.frames = new ClockFrame[numFrames];
-        for (int i = 0; i < numFrames; i++) {
-            frames[i] = new ClockFrame(); // Initialize with empty frames
+        super(numFrames);
+        this.referenceBits = new long[(numFrames + 63) >>> 6];
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.freeFrames = new int[numFrames];
+        for (int frame = numFrames - 1; frame >= 0; frame--) {
+            freeFrames[freeCount++] = frame; // Frame 0 is handed out first, just as the hand would reach it
         }
         this.clockHand = 0;
-        this.pageHits = 0;
-        this.pageFaults = 0;
     }
 
     /**
      * Simulates a request for a specific page.
      * Handles page hits and page faults according to the Clock algorithm.
-     * @param pageNumber The page number being requested.
+     * @param pageNumber The page number being requested; must not be negative.
      * @return A String describing the result (e.g., "Hit", "Fault - Replaced page X", "Fault - Loaded into empty frame").
      */
+    @Override
     public String requestPage(int pageNumber) {
+        access(pageNumber);
+        return describeLastRequest();
+    }
+
+    /**
+     * Simulates a request for a specific page without building a result message.
+     * The frame used and any victim page can be read back through
+     * {@link #getLastFrame()} and {@link #getLastVictimPage()}.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
         // 1. Check for Page Hit
         int foundIndex = findPage(pageNumber);
         if (foundIndex != -1) {
-            frames[foundIndex].setReferenceBit(1); // Set reference bit on hit
-            pageHits++;
-            return "Hit for page " + pageNumber;
+            setReferenceBit(foundIndex); // Set reference bit on hit
+            if (metrics != null) {
+                metrics.recordHit();
+            }
+            return recordHit(pageNumber, foundIndex);
         }
 
         // 2. Page Fault - Find a frame to replace
-        pageFaults++;
-        while (true) {
-            ClockFrame currentFrame = frames[clockHand];
-
-            if (currentFrame.getReferenceBit() == 0) {
-                // Found a frame to replace
-                int oldPage = currentFrame.getPageNumber();
-                String result;
-                if (currentFrame.isEmpty()) {
-                    result = "Fault - Loaded page " + pageNumber + " into empty frame " + clockHand;
-                } else {
-                    result = "Fault - Replaced page " + oldPage + " with page " + pageNumber + " at frame " + clockHand;
+        recordFault(pageNumber);
+        int victim;
+        if (freeCount > 0) {
+            victim = freeFrames[--freeCount];
+            lastSweepLength = 0;
+        } else {
+            victim = sweepToVictim();
+        }
+
+        // Found a frame to replace
+        if (pages[victim] != EMPTY) {
+            pageIndex.remove(evictFrame(victim));
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        pageIndex.put(pageNumber, victim);
+        setReferenceBit(victim); // New page gets reference bit 1
+        if (victim == clockHand) {
+            advanceClockHand(); // Frames added by a resize are filled without moving the hand
+        }
+        if (metrics != null) {
+            metrics.recordFault(pageNumber, lastVictimPage, victim, lastSweepLength, numFrames);
+        }
+        return outcome;
+    }
+
+    /**
+     * Changes the number of frames between requests, as when memory is ballooned or a
+     * process's allocation changes mid-trace. New frames start empty and are filled before
+     * anything else is evicted. On a shrink the clock picks the pages to evict exactly as it
+     * would on a fault, then pages left in the removed frames move into frames that remain.
+     * The hand keeps its frame unless that frame was removed, in which case it wraps to 0.
+     * Costs time proportional to the change plus any sweeping, not a rebuild of the frame table.
+     * @param newNumFrames The new number of frames; must be positive.
+     */
+    public void resize(int newNumFrames) {
+        if (newNumFrames <= 0) {
+            throw new IllegalArgumentException("Number of frames must be positive.");
+        }
+        if (newNumFrames > numFrames) {
+            grow(newNumFrames);
+        } else if (newNumFrames < numFrames) {
+            shrink(newNumFrames);
+        }
+    }
+
+    /**
+     * Adds empty frames after the last one. The arrays grow geometrically, so a run of small
+     * increases copies the frame table only a logarithmic number of times.
+     */
+    private void grow(int newNumFrames) {
+        if (newNumFrames > pages.length) {
+            int capacity = Math.max(newNumFrames, (int) Math.min(Integer.MAX_VALUE - 8, pages.length * 2L));
+            pages = Arrays.copyOf(pages, capacity);
+            referenceBits = Arrays.copyOf(referenceBits, (capacity + 63) >>> 6);
+            freeFrames = Arrays.copyOf(freeFrames, capacity);
+        }
+        Arrays.fill(pages, numFrames, newNumFrames, EMPTY); // Reference bits past the old end are already 0
+        for (int frame = newNumFrames - 1; frame >= numFrames; frame--) {
+            freeFrames[freeCount++] = frame;
+        }
+        numFrames = newNumFrames;
+    }
+
+    /**
+     * Removes frames from the end. The array capacity is kept so a later grow is cheap.
+     */
+    private void shrink(int newNumFrames) {
+        // Evict by the clock rule until the resident pages fit; the victims do not count as requests
+        int excess = numFrames - freeCount - newNumFrames;
+        while (excess > 0) {
+            int victim = sweepToVictim();
+            advanceClockHand();
+            if (pages[victim] != EMPTY) { // Empty frames have reference bit 0, so the sweep stops at them too
+                pageIndex.remove(pages[victim]);
+                pages[victim] = EMPTY;
+                if (metrics != null) {
+                    metrics.recordEviction(victim);
                 }
-                currentFrame.setPageNumber(pageNumber);
-                currentFrame.setReferenceBit(1); // New page gets reference bit 1
-                advanceClockHand();
-                return result;
-            } else {
-                // Reference bit is 1, set to 0 and move hand
-                currentFrame.setReferenceBit(0);
-                advanceClockHand();
+                freeFrames[freeCount++] = victim;
+                excess--;
+            }
+        }
+
+        // Drop the removed frames from the free stack, then move surviving pages out of them
+        int kept = 0;
+        for (int i = 0; i < freeCount; i++) {
+            if (freeFrames[i] < newNumFrames) {
+                freeFrames[kept++] = freeFrames[i];
+            }
+        }
+        freeCount = kept;
+        for (int frame = newNumFrames; frame < numFrames; frame++) {
+            int page = pages[frame];
+            if (page == EMPTY) {
+                continue;
+            }
+            int target = freeFrames[--freeCount];
+            pages[target] = page;
+            pages[frame] = EMPTY;
+            pageIndex.put(page, target);
+            if (isReferenced(frame)) {
+                setReferenceBit(target);
+                clearReferenceBit(frame); // Frames past the end must read as empty and unreferenced
+            }
+            if (lastFrame == frame) {
+                lastFrame = target;
+            }
+            if (metrics != null) {
+                metrics.recordMove(frame, target);
             }
         }
+
+        numFrames = newNumFrames;
+        if (clockHand >= numFrames) {
+            clockHand = 0;
+        }
     }
 
     /**
-     * Searches for a page number within the frames.
+     * Looks up the frame holding a page number in the page index.
      * @param pageNumber The page number to search for.
      * @return The index of the frame containing the page, or -1 if not found.
      */
     private int findPage(int pageNumber) {
-        for (int i = 0; i < numFrames; i++) {
-            if (!frames[i].isEmpty() && frames[i].getPageNumber() == pageNumber) {
-                return i;
+        return pageIndex.get(pageNumber); // IntIntHashMap.NO_VALUE is -1
+    }
+
+    /**
+     * Advances the clock hand to the next frame with a reference bit of 0, clearing
+     * every set bit it passes, exactly as stepping one frame at a time would.
+     * Works on whole 64-bit words so long runs of referenced frames cost one operation per word.
+     * @return The index of the victim frame; the clock hand is left pointing at it.
+     */
+    private int sweepToVictim() {
+        int start = clockHand;
+        int victim = nextClearBit(start, numFrames);
+        if (victim != -1) {
+            clearRange(start, victim);
+            lastSweepLength = victim - start;
+        } else {
+            // Every frame from the hand to the end was referenced, so wrap around
+            clearRange(start, numFrames);
+            victim = nextClearBit(0, start);
+            if (victim != -1) {
+                clearRange(0, victim);
+                lastSweepLength = numFrames - start + victim;
+            } else {
+                // All frames were referenced: a full revolution clears them and stops at the start
+                clearRange(0, start);
+                victim = start;
+                lastSweepLength = numFrames;
             }
         }
-        return -1; // Not found
+        clockHand = victim;
+        return victim;
+    }
+
+    /**
+     * Finds the first frame in [from, to) whose reference bit is 0.
+     * @return The frame index, or -1 if every frame in the range is referenced.
+     */
+    private int nextClearBit(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = ~referenceBits[wordIndex] & (-1L << from);
+        int lastWord = (to - 1) >>> 6;
+        while (word == 0) {
+            if (++wordIndex > lastWord) {
+                return -1;
+            }
+            word = ~referenceBits[wordIndex];
+        }
+        int frame = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        return frame < to ? frame : -1;
+    }
+
+    /**
+     * Clears the reference bits of every frame in [from, to).
+     */
+    private void clearRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to; // Shift distance is taken mod 64
+        if (firstWord == lastWord) {
+            referenceBits[firstWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        referenceBits[firstWord] &= ~firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            referenceBits[i] = 0L;
+        }
+        referenceBits[lastWord] &= ~lastMask;
     }
 
     /**
      * Advances the clock hand to the next frame, wrapping around circularly.
      */
     private void advanceClockHand() {
-        clockHand = (clockHand + 1) % numFrames;
+        if (++clockHand == numFrames) {
+            clockHand = 0;
+        }
+    }
+
+    private boolean isReferenced(int frame) {
+        return (referenceBits[frame >>> 6] & (1L << frame)) != 0;
+    }
+
+    private void setReferenceBit(int frame) {
+        referenceBits[frame >>> 6] |= 1L << frame; // Shift distance is taken mod 64
+    }
+
+    private void clearReferenceBit(int frame) {
+        referenceBits[frame >>> 6] &= ~(1L << frame);
     }
 
     // --- Getters for GUI ---
 
-    public ClockFrame[] getFrames() {
-        // Return a copy to prevent external modification
-        return Arrays.copyOf(frames, numFrames);
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return isReferenced(frame) ? 1 : 0;
     }
 
-    public int getClockHand() {
-        return clockHand;
+    @Override
+    public String getName() {
+        return "Clock";
     }
 
-    public int getPageHits() {
-        return pageHits;
+    @Override
+    public int getClockHand() {
+        return clockHand;
     }
 
-    public int getPageFaults() {
-        return pageFaults;
+    /**
+     * Gets the number of frames the hand passed over to find the most recent fault's frame.
+     * A fault that filled an empty frame swept none; a full revolution sweeps every frame.
+     */
+    public int getLastSweepLength() {
+        return lastSweepLength;
     }
 
-    public int getNumFrames() {
-        return numFrames;
+    /**
+     * Attaches instrumentation, or detaches it when given null.
+     * @param metrics The metrics to record into from the next request on.
+     */
+    public void setMetrics(ClockMetrics metrics) {
+        this.metrics = metrics;
     }
 
-    public double getHitRatio() {
-        int totalRequests = pageHits + pageFaults;
-        if (totalRequests == 0) {
-            return 0.0;
-        }
-        return (double) pageHits / totalRequests;
+    public ClockMetrics getMetrics() {
+        return metrics;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,391 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * General-purpose cache that evicts with the Clock algorithm.
+ * Entries live in parallel arrays indexed by slot, reference bits are packed 64 to a long,
+ * and keys are found through an open-addressing hash table of slot numbers, so a hit only
+ * sets a bit and allocates nothing. Capacity is either a number of entries or a total weight.
+ * All methods are synchronized; the eviction listener runs while the lock is held and must not
+ * call back into the cache.
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class ClockCache<K, V> {
+
+    /**
+     * Computes the weight an entry counts for against the cache capacity.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    /**
+     * Notified whenever an entry is evicted to make room.
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onEviction(K key, V value);
+    }
+
+    private static final int MIN_SLOTS = 16;
+
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private EvictionListener<? super K, ? super V> evictionListener;
+
+    // Entry slots
+    private Object[] keys; // null marks a free slot
+    private Object[] values;
+    private int[] hashes;
+    private int[] weights;
+    private long[] referenceBits;
+    private long[] occupiedBits; // Set for slots holding an entry, so the sweep can skip free slots a word at a time
+    private int[] freeSlots; // Stack of free slot numbers
+    private int freeSlotCount;
+
+    // Hash index: each cell packs (hash << 32 | slot + 1), 0 for an empty cell, so probes
+    // compare hashes without touching the slot arrays
+    private long[] table;
+    private int tableMask;
+
+    private int size;
+    private long totalWeight;
+    private int clockHand;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor for a ClockCache bounded by a number of entries.
+     * @param maxEntries The most entries the cache holds.
+     */
+    public ClockCache(int maxEntries) {
+        this(maxEntries, (key, value) -> 1, maxEntries);
+    }
+
+    /**
+     * Constructor for a ClockCache bounded by total weight, for example a size in bytes.
+     * @param maxWeight The most total weight the cache holds.
+     * @param weigher Computes the weight of each entry; must be non-negative.
+     * @param expectedEntries The number of entries to size the arrays for; they grow if needed.
+     */
+    public ClockCache(long maxWeight, Weigher<? super K, ? super V> weigher, int expectedEntries) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher);
+        allocateSlots(Math.max(MIN_SLOTS, expectedEntries + 1));
+    }
+
+    /**
+     * Sets the listener told about evicted entries, or null for none.
+     */
+    public synchronized void setEvictionListener(EvictionListener<? super K, ? super V> listener) {
+        this.evictionListener = listener;
+    }
+
+    /**
+     * Looks up a value and marks it as recently used.
+     * @param key The key to look up.
+     * @return The cached value, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(Object key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        setReferenceBit(slot);
+        return (V) values[slot];
+    }
+
+    /**
+     * Stores a value, evicting other entries if the cache is over capacity.
+     * @param key The key; must not be null.
+     * @param value The value; must not be null.
+     * @return The previous value for the key, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V put(K key, V value) {
+        Objects.requireNonNull(value);
+        int hash = spread(key.hashCode());
+        int slot = findSlot(key, hash);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            int weight = weigh(key, value);
+            totalWeight += weight - weights[slot];
+            weights[slot] = weight;
+            setReferenceBit(slot);
+            evictIfNeeded();
+            return previous;
+        }
+        insert(key, value, hash);
+        return null;
+    }
+
+    /**
+     * Returns the cached value for a key, computing and caching it on a miss.
+     * The function runs while the cache lock is held.
+     * @param key The key; must not be null.
+     * @param mappingFunction Computes the value; a null result is not cached.
+     * @return The cached or newly computed value, or null if the function returned null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int hash = spread(key.hashCode());
+        int slot = findSlot(key, hash);
+        if (slot >= 0) {
+            hitCount++;
+            setReferenceBit(slot);
+            return (V) values[slot];
+        }
+        missCount++;
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            insert(key, value, hash);
+        }
+        return value;
+    }
+
+    /**
+     * Removes an entry without notifying the eviction listener.
+     * @return The removed value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(Object key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    /**
+     * Removes every entry without notifying the eviction listener. The stats are kept.
+     */
+    public synchronized void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        Arrays.fill(referenceBits, 0L);
+        Arrays.fill(occupiedBits, 0L);
+        Arrays.fill(table, 0L);
+        freeSlotCount = 0;
+        for (int i = keys.length - 1; i >= 0; i--) {
+            freeSlots[freeSlotCount++] = i;
+        }
+        size = 0;
+        totalWeight = 0;
+        clockHand = 0;
+    }
+
+    // --- Internals ---
+
+    private void insert(K key, V value, int hash) {
+        if (freeSlotCount == 0) {
+            allocateSlots(keys.length * 2);
+        }
+        int slot = freeSlots[--freeSlotCount];
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        int weight = weigh(key, value);
+        weights[slot] = weight;
+        totalWeight += weight;
+        size++;
+        occupiedBits[slot >>> 6] |= 1L << slot;
+        setReferenceBit(slot); // New entries get a second chance, as new pages do
+        insertCell(hash, slot);
+        evictIfNeeded();
+    }
+
+    /**
+     * Evicts entries at the clock hand until the cache is back within capacity.
+     */
+    @SuppressWarnings("unchecked")
+    private void evictIfNeeded() {
+        while (totalWeight > maxWeight) {
+            int slot = sweepToVictim();
+            K key = (K) keys[slot];
+            V value = (V) values[slot];
+            removeSlot(slot);
+            evictionCount++;
+            if (evictionListener != null) {
+                evictionListener.onEviction(key, value);
+            }
+        }
+    }
+
+    /**
+     * Advances the clock hand to the next occupied slot whose reference bit is 0, clearing the
+     * reference bits it passes. Works a word of 64 slots at a time.
+     * Only called while at least one slot is occupied, so it ends within two laps.
+     * @return The victim slot.
+     */
+    private int sweepToVictim() {
+        int slot = clockHand;
+        while (true) {
+            int word = slot >>> 6;
+            long candidates = occupiedBits[word] & ~referenceBits[word] & (-1L << slot);
+            if (candidates != 0) {
+                int victim = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                referenceBits[word] &= ~((-1L << slot) & ~(-1L << victim)); // Second chance for the slots passed
+                clockHand = victim + 1 == keys.length ? 0 : victim + 1;
+                return victim;
+            }
+            referenceBits[word] &= ~(-1L << slot);
+            slot = (word + 1) << 6;
+            if (slot >= keys.length) {
+                slot = 0;
+            }
+        }
+    }
+
+    private int findSlot(Object key, int hash) {
+        int cell = hash & tableMask;
+        while (true) {
+            long entry = table[cell];
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == hash) {
+                int slot = (int) entry - 1;
+                Object candidate = keys[slot];
+                if (candidate == key || key.equals(candidate)) {
+                    return slot;
+                }
+            }
+            cell = (cell + 1) & tableMask;
+        }
+    }
+
+    private void insertCell(int hash, int slot) {
+        int cell = hash & tableMask;
+        while (table[cell] != 0) {
+            cell = (cell + 1) & tableMask;
+        }
+        table[cell] = ((long) hash << 32) | (slot + 1);
+    }
+
+    private void removeSlot(int slot) {
+        // Find and clear the slot's table cell, then close the gap by backward shifting
+        int cell = hashes[slot] & tableMask;
+        while ((int) table[cell] != slot + 1) {
+            cell = (cell + 1) & tableMask;
+        }
+        int gap = cell;
+        int current = (cell + 1) & tableMask;
+        while (table[current] != 0) {
+            int home = (int) (table[current] >>> 32) & tableMask;
+            if (((current - home) & tableMask) >= ((current - gap) & tableMask)) {
+                table[gap] = table[current];
+                gap = current;
+            }
+            current = (current + 1) & tableMask;
+        }
+        table[gap] = 0L;
+
+        totalWeight -= weights[slot];
+        keys[slot] = null;
+        values[slot] = null;
+        clearReferenceBit(slot);
+        occupiedBits[slot >>> 6] &= ~(1L << slot);
+        freeSlots[freeSlotCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Grows the slot arrays to the given count and rebuilds the hash index at half load.
+     */
+    private void allocateSlots(int slotCount) {
+        int oldCount = keys == null ? 0 : keys.length;
+        keys = keys == null ? new Object[slotCount] : Arrays.copyOf(keys, slotCount);
+        values = values == null ? new Object[slotCount] : Arrays.copyOf(values, slotCount);
+        hashes = hashes == null ? new int[slotCount] : Arrays.copyOf(hashes, slotCount);
+        weights = weights == null ? new int[slotCount] : Arrays.copyOf(weights, slotCount);
+        int words = (slotCount + 63) >>> 6;
+        referenceBits = referenceBits == null ? new long[words] : Arrays.copyOf(referenceBits, words);
+        occupiedBits = occupiedBits == null ? new long[words] : Arrays.copyOf(occupiedBits, words);
+        int[] oldFree = freeSlots;
+        freeSlots = new int[slotCount];
+        if (oldFree != null) {
+            System.arraycopy(oldFree, 0, freeSlots, 0, freeSlotCount);
+        }
+        for (int i = slotCount - 1; i >= oldCount; i--) {
+            freeSlots[freeSlotCount++] = i;
+        }
+
+        int tableSize = Integer.highestOneBit(slotCount * 2 - 1) << 1;
+        table = new long[tableSize];
+        tableMask = tableSize - 1;
+        for (int slot = 0; slot < oldCount; slot++) {
+            if (keys[slot] != null) {
+                insertCell(hashes[slot], slot);
+            }
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Entry weight cannot be negative.");
+        }
+        return weight;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void setReferenceBit(int slot) {
+        referenceBits[slot >>> 6] |= 1L << slot;
+    }
+
+    private void clearReferenceBit(int slot) {
+        referenceBits[slot >>> 6] &= ~(1L << slot);
+    }
+
+    // --- Stats ---
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized double getHitRatio() {
+        long totalRequests = hitCount + missCount;
+        if (totalRequests == 0) {
+            return 0.0;
+        }
+        return (double) hitCount / totalRequests;
+    }
+}
@@ -2,29 +2,78 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The main GUI class for the Clock Page Replacement Algorithm simulator.
+ * Any {@link ReplacementPolicy} can be visualized; Clock is the default.
+ *
+ * A loaded trace is replayed by a background worker so the event thread never runs the engine
+ * for long. The worker paces itself to the chosen speed and publishes a snapshot of the frames
+ * once per display refresh; Swing coalesces the snapshots, so only the latest one is painted.
+ * Every change to the engine, from the worker or the event thread, holds {@code simulationLock}.
+ *
+ * Small memories are drawn as a ring of frame boxes. Larger ones are drawn as a {@link FrameHeatmap}
+ * grid, cached in an image and repainted only where cells changed, so a repaint costs at most
+ * one step per pixel however many frames there are.
  */
 public class ClockGUI extends JFrame {
 
-    private ClockAlgorithm algorithm;
+    private ReplacementPolicy algorithm;
     private ClockVisualizationPanel clockPanel;
     private JTextField pageRequestInput;
     private JButton requestButton;
+    private JTextField framesInput;
     private JTextArea statusArea;
     private JLabel statsLabel;
     private int numFrames; // Store the number of frames
 
+    /** Playback speeds offered, in requests per second; 0 runs as fast as the worker can. */
+    private static final int[] SPEEDS = {1, 10, 100, 1000, 10000, 100000, 1000000, 0};
+    private static final String[] SPEED_NAMES = {"1/s", "10/s", "100/s", "1,000/s", "10,000/s", "100,000/s", "1,000,000/s", "Max"};
+
+    private final Object simulationLock = new Object(); // Held while the engine is read or changed
+    private final long frameNanos; // One display refresh
+    private Snapshot snapshot; // What the panel draws; only touched on the event thread
+    private PlaybackWorker playback; // Replays the loaded trace, or null if none is loaded
+    private JButton playButton;
+    private JButton stepButton;
+    private JComboBox<String> speedBox;
+
+    /** Views offered; Auto draws frame boxes up to AUTO_BOX_FRAMES and a reference-bit heatmap beyond. */
+    private static final String[] VIEW_NAMES = {"Auto", "Frames", "Reference Bits", "Residency Age"};
+    private static final int AUTO_BOX_FRAMES = 32;
+    private static final int MAX_BOX_FRAMES = 256; // Past this the Frames view falls back to the heatmap
+
+    private final FrameHeatmap heatmap = new FrameHeatmap();
+    private volatile boolean heatmapActive; // Whether snapshots must also update the heatmap
+    private long heatmapDueAt; // Earliest time playback updates the heatmap again; guarded by simulationLock
+    private JComboBox<String> viewBox;
+
     /**
-     * Constructor for the GUI.
+     * Constructor for the GUI using the Clock algorithm.
      * @param numFrames The number of memory frames to simulate.
      */
     public ClockGUI(int numFrames) {
-        this.numFrames = numFrames;
-        this.algorithm = new ClockAlgorithm(numFrames);
+        this(new ClockAlgorithm(numFrames));
+    }
+
+    /**
+     * Constructor for the GUI.
+     * @param algorithm The replacement engine to visualize.
+     */
+    public ClockGUI(ReplacementPolicy algorithm) {
+        this.numFrames = algorithm.getNumFrames();
+        this.algorithm = algorithm;
+        this.frameNanos = 1_000_000_000L / refreshRate();
+        this.snapshot = new Snapshot(algorithm, "", 0, -1);
 
-        setTitle("Clock Page Replacement Simulator");
+        setTitle(algorithm.getName() + " Page Replacement Simulator");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout(5, 5)); // Use BorderLayout
 
@@ -69,6 +118,76 @@ public class ClockGUI extends JFrame {
         gbc.weightx = 0;
         panel.add(requestButton, gbc);
 
+        // Frame count, which only the Clock engine can change while running
+        int row = 1;
+        if (algorithm instanceof ClockAlgorithm) {
+            gbc.gridx = 0;
+            gbc.gridy = row++;
+            panel.add(new JLabel("Frames:"), gbc);
+
+            framesInput = new JTextField(String.valueOf(numFrames), 5);
+            gbc.gridx = 1;
+            gbc.weightx = 0.5;
+            panel.add(framesInput, gbc);
+
+            JButton resizeButton = new JButton("Resize");
+            gbc.gridx = 2;
+            gbc.weightx = 0;
+            panel.add(resizeButton, gbc);
+
+            resizeButton.addActionListener(e -> handleResize());
+            framesInput.addActionListener(e -> handleResize());
+        }
+
+        // Trace playback
+        JPanel playbackPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        JButton loadButton = new JButton("Load Trace...");
+        playButton = new JButton("Play");
+        stepButton = new JButton("Step");
+        speedBox = new JComboBox<>(SPEED_NAMES);
+        speedBox.setSelectedIndex(3);
+        playButton.setEnabled(false); // Nothing to play until a trace is loaded
+        stepButton.setEnabled(false);
+        playbackPanel.add(loadButton);
+        playbackPanel.add(playButton);
+        playbackPanel.add(stepButton);
+        playbackPanel.add(new JLabel("Speed:"));
+        playbackPanel.add(speedBox);
+        gbc.gridx = 0;
+        gbc.gridy = row++;
+        gbc.gridwidth = 3;
+        panel.add(playbackPanel, gbc);
+        gbc.gridwidth = 1;
+
+        loadButton.addActionListener(e -> handleLoadTrace());
+        playButton.addActionListener(e -> handlePlayPause());
+        stepButton.addActionListener(e -> {
+            if (playback != null) {
+                playback.step();
+            }
+        });
+        speedBox.addActionListener(e -> {
+            if (playback != null) {
+                playback.setSpeed(SPEEDS[speedBox.getSelectedIndex()]);
+            }
+        });
+
+        // Display mode
+        gbc.gridx = 0;
+        gbc.gridy = row++;
+        gbc.weightx = 0;
+        panel.add(new JLabel("View:"), gbc);
+
+        viewBox = new JComboBox<>(VIEW_NAMES);
+        gbc.gridx = 1;
+        gbc.weightx = 0.5;
+        panel.add(viewBox, gbc);
+
+        viewBox.addActionListener(e -> {
+            clockPanel.refresh(snapshot.clockHand);
+            clockPanel.revalidate(); // The frame boxes and the heatmap prefer different sizes
+        });
+
         // Status Area
         statusArea = new JTextArea(3, 30); // Rows, Columns
         statusArea.setEditable(false);
@@ -76,7 +195,7 @@ public class ClockGUI extends JFrame {
         statusArea.setWrapStyleWord(true);
         JScrollPane scrollPane = new JScrollPane(statusArea);
         gbc.gridx = 0;
-        gbc.gridy = 1;
+        gbc.gridy = row++;
         gbc.gridwidth = 3; // Span across 3 columns
         gbc.fill = GridBagConstraints.BOTH;
         gbc.weighty = 1.0; // Allow vertical expansion
@@ -85,7 +204,7 @@ public class ClockGUI extends JFrame {
         // Statistics Label
         statsLabel = new JLabel("Hits: 0 | Faults: 0 | Ratio: 0.00");
         gbc.gridx = 0;
-        gbc.gridy = 2;
+        gbc.gridy = row;
         gbc.gridwidth = 3;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.weighty = 0; // No vertical expansion
@@ -121,10 +240,12 @@ public class ClockGUI extends JFrame {
                  return;
             }
 
-            String result = algorithm.requestPage(pageNumber);
-            statusArea.setText(result); // Display result from algorithm
-            updateStats();
-            clockPanel.repaint(); // Redraw the clock visualization
+            Snapshot next;
+            synchronized (simulationLock) { // The worker may be replaying a trace
+                algorithm.requestPage(pageNumber);
+                next = takeSnapshot();
+            }
+            show(next);
             pageRequestInput.setText(""); // Clear input field
             pageRequestInput.requestFocusInWindow(); // Set focus back to input
 
@@ -137,13 +258,337 @@ public class ClockGUI extends JFrame {
     }
 
     /**
-     * Updates the statistics label based on the current state of the algorithm.
+     * Handles the logic when the "Resize" button is clicked or Enter is pressed in the frames field.
+     */
+    private void handleResize() {
+        try {
+            int frames = Integer.parseInt(framesInput.getText().trim());
+            if (frames <= 0) {
+                statusArea.setText("Number of frames must be positive.");
+                return;
+            }
+            Snapshot next;
+            synchronized (simulationLock) {
+                ((ClockAlgorithm) algorithm).resize(frames);
+                next = takeSnapshot();
+            }
+            show(next);
+            statusArea.setText("Resized memory to " + frames + " frames");
+            clockPanel.revalidate();
+        } catch (NumberFormatException ex) {
+            statusArea.setText("Invalid input. Please enter an integer number of frames.");
+        }
+    }
+
+    /**
+     * Handles the "Load Trace" button: asks for a trace file and readies it for playback.
+     * The trace is replayed into the current memory state; a trace already loaded is stopped.
+     */
+    private void handleLoadTrace() {
+        JFileChooser chooser = new JFileChooser(new File("."));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        PageTrace trace;
+        try {
+            trace = PageTrace.open(file.getPath());
+        } catch (IOException | RuntimeException ex) {
+            statusArea.setText("Could not open trace: " + ex.getMessage());
+            return;
+        }
+        if (playback != null) {
+            playback.stop();
+        }
+        long total = trace instanceof BinaryTraceReader ? ((BinaryTraceReader) trace).getRecordCount() : -1;
+        playback = new PlaybackWorker(trace, total, SPEEDS[speedBox.getSelectedIndex()]);
+        playback.execute();
+        playButton.setText("Play");
+        playButton.setEnabled(true);
+        stepButton.setEnabled(true);
+        Snapshot next;
+        synchronized (simulationLock) {
+            next = captureSnapshot("Loaded " + file.getName()
+                    + ". Press Play to replay it or Step to request one page at a time.", 0, total, false);
+        }
+        show(next);
+    }
+
+    /**
+     * Handles the "Play"/"Pause" button.
+     */
+    private void handlePlayPause() {
+        if (playback == null) {
+            return;
+        }
+        boolean play = !playback.isPlaying();
+        playback.setPlaying(play);
+        playButton.setText(play ? "Pause" : "Play");
+    }
+
+    /**
+     * Copies the engine's state for display, with the playback position. Runs on the event thread
+     * holding {@code simulationLock}.
+     */
+    private Snapshot takeSnapshot() {
+        long position = playback != null ? playback.position : 0;
+        long total = playback != null ? playback.total : -1;
+        return captureSnapshot(algorithm.describeLastRequest(), position, total, false);
+    }
+
+    /**
+     * Copies the engine's state for display, updating the heatmap too while it is shown.
+     * Must be called holding {@code simulationLock}.
+     * @param throttle Whether to skip the heatmap if updating it would take over a quarter of the time,
+     *                 as it can during playback with a million frames.
+     */
+    private Snapshot captureSnapshot(String status, long position, long total, boolean throttle) {
+        if (heatmapActive && (!throttle || System.nanoTime() >= heatmapDueAt)) {
+            long start = System.nanoTime();
+            heatmap.update(algorithm);
+            long end = System.nanoTime();
+            heatmapDueAt = end + 3 * (end - start);
+        }
+        return new Snapshot(algorithm, status, position, total);
+    }
+
+    /**
+     * Makes a snapshot the one on screen. Runs on the event thread.
+     */
+    private void show(Snapshot next) {
+        int previousHand = snapshot.clockHand;
+        snapshot = next;
+        numFrames = next.numFrames;
+        statusArea.setText(next.status);
+        updateStats();
+        clockPanel.refresh(previousHand);
+    }
+
+    /**
+     * Updates the statistics label based on the snapshot on screen.
      */
     private void updateStats() {
-        statsLabel.setText(String.format("Hits: %d | Faults: %d | Ratio: %.2f",
-                algorithm.getPageHits(),
-                algorithm.getPageFaults(),
-                algorithm.getHitRatio()));
+        String stats = String.format("Hits: %d | Faults: %d | Ratio: %.2f",
+                snapshot.hits,
+                snapshot.faults,
+                snapshot.hitRatio);
+        if (snapshot.total >= 0) {
+            stats += String.format(" | Trace: %,d / %,d", snapshot.position, snapshot.total);
+        } else if (snapshot.position > 0) {
+            stats += String.format(" | Trace: %,d", snapshot.position);
+        }
+        statsLabel.setText(stats);
+    }
+
+    /**
+     * Gets the refresh rate of the default screen, or 60 Hz if it does not report one.
+     */
+    private static int refreshRate() {
+        try {
+            int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDisplayMode().getRefreshRate();
+            return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : rate;
+        } catch (HeadlessException ex) {
+            return 60;
+        }
+    }
+
+    // --- Snapshot of the engine for painting ---
+    private static class Snapshot {
+        final int numFrames;
+        final int[] pages; // Null when there are too many frames to draw as boxes
+        final int[] referenceBits;
+        final int clockHand;
+        final long hits;
+        final long faults;
+        final double hitRatio;
+        final String status;
+        final long position; // Trace requests replayed
+        final long total; // Trace length, or -1 if unknown
+
+        Snapshot(ReplacementPolicy algorithm, String status, long position, long total) {
+            this.numFrames = algorithm.getNumFrames();
+            if (numFrames <= MAX_BOX_FRAMES) {
+                this.pages = new int[numFrames];
+                this.referenceBits = new int[numFrames];
+                for (int i = 0; i < numFrames; i++) {
+                    pages[i] = algorithm.getPageAt(i);
+                    referenceBits[i] = algorithm.getReferenceBitAt(i) > 0 ? 1 : 0;
+                }
+            } else {
+                this.pages = null;
+                this.referenceBits = null;
+            }
+            this.clockHand = algorithm.getClockHand();
+            this.hits = algorithm.getPageHits();
+            this.faults = algorithm.getPageFaults();
+            this.hitRatio = algorithm.getHitRatio();
+            this.status = status;
+            this.position = position;
+            this.total = total;
+        }
+    }
+
+    // --- Background trace replay ---
+    private class PlaybackWorker extends SwingWorker<Void, Snapshot> {
+        private static final int CHECK_INTERVAL = 1024; // Requests between clock reads in a batch
+
+        private final PageTrace trace;
+        private final long total;
+        private volatile long position; // Written only by the worker
+        private volatile int speed;
+        private boolean playing; // Guarded by this worker's monitor
+        private int stepsRequested;
+
+        PlaybackWorker(PageTrace trace, long total, int speed) {
+            this.trace = trace;
+            this.total = total;
+            this.speed = speed;
+        }
+
+        synchronized boolean isPlaying() {
+            return playing;
+        }
+
+        synchronized void setPlaying(boolean playing) {
+            this.playing = playing;
+            notifyAll();
+        }
+
+        synchronized void step() {
+            stepsRequested++;
+            notifyAll();
+        }
+
+        void setSpeed(int speed) {
+            this.speed = speed;
+        }
+
+        void stop() {
+            cancel(false); // Not interrupting, so a mapped or buffered trace is never half-read
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            try {
+                long lastTick = System.nanoTime();
+                double credit = 0; // Requests the speed has allowed but not yet run
+                boolean throttled = false; // Whether the last snapshot may have skipped the heatmap
+                while (!isCancelled() && trace.hasNext()) {
+                    if (throttled && !isPlaying()) {
+                        synchronized (simulationLock) { // Paused: show the heatmap as it stands
+                            publish(captureSnapshot(algorithm.describeLastRequest(), position, total, false));
+                        }
+                        throttled = false;
+                    }
+                    boolean stepping;
+                    synchronized (this) {
+                        boolean waited = false;
+                        while (!playing && stepsRequested == 0 && !isCancelled()) {
+                            wait();
+                            waited = true;
+                        }
+                        if (isCancelled()) {
+                            break;
+                        }
+                        stepping = !playing;
+                        if (stepping) {
+                            stepsRequested--;
+                        }
+                        if (waited) {
+                            lastTick = System.nanoTime(); // Paused time earns no requests
+                        }
+                    }
+
+                    long tick = System.nanoTime();
+                    long deadline = tick + frameNanos * 3 / 4; // Leave the rest of the frame to the event thread
+                    long ran;
+                    if (stepping) {
+                        ran = replay(1, Long.MAX_VALUE);
+                    } else if (speed == 0) {
+                        ran = replay(Long.MAX_VALUE, deadline);
+                    } else {
+                        int rate = speed;
+                        credit = Math.min(credit + (tick - lastTick) * (double) rate / 1e9, Math.max(1, 2.0 * rate * frameNanos / 1e9));
+                        ran = replay((long) credit, deadline);
+                        credit -= ran;
+                    }
+                    lastTick = tick;
+
+                    if (ran > 0) {
+                        synchronized (simulationLock) {
+                            publish(captureSnapshot(algorithm.describeLastRequest(), position, total, !stepping));
+                        }
+                        throttled = !stepping;
+                    }
+                    long sleepNanos = frameNanos - (System.nanoTime() - tick);
+                    if (!stepping && sleepNanos > 0) {
+                        Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                    }
+                }
+            } finally {
+                trace.close();
+            }
+            return null;
+        }
+
+        /**
+         * Runs up to {@code count} requests from the trace, stopping early at the deadline.
+         * @return The number of requests run.
+         */
+        private long replay(long count, long deadline) {
+            WSClockAlgorithm wsClock = algorithm instanceof WSClockAlgorithm ? (WSClockAlgorithm) algorithm : null;
+            long ran = 0;
+            synchronized (simulationLock) {
+                while (ran < count && trace.hasNext()) {
+                    int pageNumber = trace.nextInt();
+                    if (wsClock != null) {
+                        wsClock.access(pageNumber, trace.isLastWrite());
+                    } else {
+                        algorithm.access(pageNumber);
+                    }
+                    ran++;
+                    if (ran % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                        break;
+                    }
+                }
+                position += ran;
+            }
+            return ran;
+        }
+
+        @Override
+        protected void process(List<Snapshot> chunks) {
+            if (playback == this) {
+                show(chunks.get(chunks.size() - 1)); // Older snapshots are already out of date
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (playback != this) {
+                return; // Replaced by a newer trace
+            }
+            playback = null;
+            playButton.setText("Play");
+            playButton.setEnabled(false);
+            stepButton.setEnabled(false);
+            try {
+                get();
+                Snapshot last;
+                synchronized (simulationLock) {
+                    last = captureSnapshot("Trace finished after " + position + " requests.", position, total, false);
+                }
+                show(last);
+            } catch (ExecutionException ex) {
+                statusArea.setText("Trace replay failed: " + ex.getCause().getMessage());
+            } catch (InterruptedException | CancellationException ex) {
+                statusArea.setText("Trace replay stopped.");
+            }
+        }
     }
 
 
@@ -151,11 +596,125 @@ public class ClockGUI extends JFrame {
     private class ClockVisualizationPanel extends JPanel {
         private static final int PADDING = 30;
         private static final int FRAME_SIZE = 50; // Size of the box representing a frame
+        private static final int MAX_CELL_SIZE = 24; // Largest heatmap cell, in pixels
+        private static final int LEGEND_HEIGHT = 20; // Space below the heatmap for its legend
+
+        // Heatmap layout, rebuilt when the view, the frame count or the panel size changes
+        private BufferedImage heatmapImage; // One pixel per cell, scaled up when drawn
+        private FrameHeatmap.Mode layoutMode;
+        private int layoutFrames;
+        private int layoutWidth;
+        private int layoutHeight;
+        private int cellSize;
+        private int framesPerCell;
+        private int originX;
+        private int originY;
+
+        /**
+         * Gets the heatmap the current view and frame count call for, or null to draw frame boxes.
+         */
+        private FrameHeatmap.Mode heatmapMode() {
+            int view = viewBox == null ? 0 : viewBox.getSelectedIndex();
+            if (view == 2) {
+                return FrameHeatmap.Mode.REFERENCE_BITS;
+            } else if (view == 3) {
+                return FrameHeatmap.Mode.RESIDENCY_AGE;
+            }
+            int boxLimit = view == 1 ? MAX_BOX_FRAMES : AUTO_BOX_FRAMES;
+            return snapshot.numFrames > boxLimit ? FrameHeatmap.Mode.REFERENCE_BITS : null;
+        }
+
+        /**
+         * Brings the display up to date with a new snapshot, repainting only what changed when
+         * the heatmap is shown.
+         * @param previousHand The hand position in the snapshot shown before.
+         */
+        void refresh(int previousHand) {
+            FrameHeatmap.Mode mode = heatmapMode();
+            heatmapActive = mode != null;
+            if (mode == null) {
+                heatmapImage = null;
+                repaint();
+                return;
+            }
+            if (!isLayoutCurrent(mode)) {
+                layoutHeatmap(mode);
+                repaint();
+                return;
+            }
+            Rectangle changed = heatmap.drainInto(heatmapImage);
+            if (changed != null) {
+                repaint(originX + changed.x * cellSize, originY + changed.y * cellSize,
+                        changed.width * cellSize, changed.height * cellSize);
+            }
+            if (snapshot.clockHand != previousHand) {
+                repaintCell(previousHand);
+                repaintCell(snapshot.clockHand);
+            }
+        }
+
+        private boolean isLayoutCurrent(FrameHeatmap.Mode mode) {
+            return heatmapImage != null && mode == layoutMode && snapshot.numFrames == layoutFrames
+                    && getWidth() == layoutWidth && getHeight() == layoutHeight;
+        }
+
+        /**
+         * Fits the frames into a grid of square cells filling the panel, giving each cell several
+         * frames once there are more frames than pixels, and redraws the whole heatmap image.
+         */
+        private void layoutHeatmap(FrameHeatmap.Mode mode) {
+            int frames = snapshot.numFrames;
+            int width = getWidth();
+            int height = getHeight() - LEGEND_HEIGHT;
+            if (width <= 0 || height <= 0 || frames <= 0) {
+                heatmapImage = null;
+                return;
+            }
+            cellSize = (int) Math.max(1, Math.min(MAX_CELL_SIZE, Math.sqrt((double) width * height / frames)));
+            int columns = Math.max(1, width / cellSize);
+            long available = (long) columns * Math.max(1, height / cellSize);
+            framesPerCell = (int) ((frames + available - 1) / available);
+            int cells = (int) (((long) frames + framesPerCell - 1) / framesPerCell);
+            int rows = (cells + columns - 1) / columns;
+            originX = (width - columns * cellSize) / 2;
+            originY = Math.max(0, (height - rows * cellSize) / 2);
+
+            heatmapImage = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_ARGB);
+            synchronized (simulationLock) { // The heatmap is stale if it was not shown before
+                heatmap.update(algorithm);
+            }
+            heatmap.setLayout(mode, framesPerCell);
+            heatmap.drainInto(heatmapImage);
+            heatmapActive = true;
+            layoutMode = mode;
+            layoutFrames = frames;
+            layoutWidth = getWidth();
+            layoutHeight = getHeight();
+        }
+
+        /**
+         * Repaints the heatmap cell holding a frame, with room for the hand's outline.
+         */
+        private void repaintCell(int frame) {
+            if (frame < 0 || heatmapImage == null) {
+                return;
+            }
+            int cell = frame / framesPerCell;
+            int columns = heatmapImage.getWidth();
+            repaint(originX + cell % columns * cellSize - 2, originY + cell / columns * cellSize - 2,
+                    cellSize + 4, cellSize + 4);
+        }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
             Graphics2D g2d = (Graphics2D) g;
+
+            FrameHeatmap.Mode mode = heatmapMode();
+            if (mode != null) {
+                paintHeatmap(g2d, mode);
+                return;
+            }
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             int width = getWidth();
@@ -166,11 +725,11 @@ public class ClockGUI extends JFrame {
 
             if (radius <= 0) return; // Avoid drawing if panel is too small
 
-            ClockFrame[] frames = algorithm.getFrames();
-            int currentHandPos = algorithm.getClockHand();
+            Snapshot shown = snapshot; // Never the live engine, which the worker may be changing
+            int currentHandPos = shown.clockHand;
 
-            for (int i = 0; i < numFrames; i++) {
-                double angle = 2 * Math.PI * i / numFrames - (Math.PI / 2); // Start from top (-90 degrees)
+            for (int i = 0; i < shown.numFrames; i++) {
+                double angle = 2 * Math.PI * i / shown.numFrames - (Math.PI / 2); // Start from top (-90 degrees)
                 int frameX = centerX + (int) (radius * Math.cos(angle)) - FRAME_SIZE / 2;
                 int frameY = centerY + (int) (radius * Math.sin(angle)) - FRAME_SIZE / 2;
 
@@ -181,14 +740,13 @@ public class ClockGUI extends JFrame {
                 g2d.drawRect(frameX, frameY, FRAME_SIZE, FRAME_SIZE);
 
                 // Draw frame content (Page Number and Reference Bit)
-                ClockFrame frame = frames[i];
-                String pageText = frame.isEmpty() ? "-" : String.valueOf(frame.getPageNumber());
-                String bitText = String.valueOf(frame.getReferenceBit());
+                String pageText = shown.pages[i] == -1 ? "-" : String.valueOf(shown.pages[i]);
+                String bitText = String.valueOf(shown.referenceBits[i]);
 
                 g2d.drawString("P:" + pageText, frameX + 5, frameY + FRAME_SIZE / 2 - 5);
                 g2d.drawString("R:" + bitText, frameX + 5, frameY + FRAME_SIZE / 2 + 15);
 
-                // Draw Clock Hand if pointing at this frame
+                // Draw Clock Hand if pointing at this frame (policies without a hand report -1)
                 if (i == currentHandPos) {
                     g2d.setColor(Color.RED);
                     g2d.setStroke(new BasicStroke(2)); // Thicker line for hand
@@ -207,10 +765,43 @@ public class ClockGUI extends JFrame {
             }
         }
 
+        /**
+         * Draws the cached heatmap image scaled up to cell size, the hand's cell and a legend.
+         * Only the part inside the clip is actually drawn, so a dirty-region repaint stays cheap.
+         */
+        private void paintHeatmap(Graphics2D g2d, FrameHeatmap.Mode mode) {
+            if (!isLayoutCurrent(mode)) {
+                layoutHeatmap(mode);
+            }
+            if (heatmapImage == null) {
+                return; // Panel is too small
+            }
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            int columns = heatmapImage.getWidth();
+            g2d.drawImage(heatmapImage, originX, originY, columns * cellSize, heatmapImage.getHeight() * cellSize, null);
+
+            int hand = snapshot.clockHand;
+            if (hand >= 0) {
+                int cell = hand / framesPerCell;
+                g2d.setColor(Color.RED);
+                g2d.setStroke(new BasicStroke(2));
+                g2d.drawRect(originX + cell % columns * cellSize - 1, originY + cell / columns * cellSize - 1,
+                        cellSize + 1, cellSize + 1);
+                g2d.setStroke(new BasicStroke(1));
+            }
+
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(String.format("%,d frames, %,d per cell. %s", snapshot.numFrames, framesPerCell,
+                    mode == FrameHeatmap.Mode.REFERENCE_BITS ? "Gray: not referenced, green: referenced."
+                            : "Yellow: loaded recently, blue: resident longest."),
+                    5, getHeight() - 6);
+        }
+
          // Set preferred size based on number of frames (heuristic)
         @Override
         public Dimension getPreferredSize() {
-            int minDim = (int) (FRAME_SIZE * numFrames * 0.8); // Estimate based on circumference
+            int boxes = heatmapMode() == null ? numFrames : 0; // The heatmap fits whatever size it gets
+            int minDim = (int) (FRAME_SIZE * boxes * 0.8); // Estimate based on circumference
             return new Dimension(Math.max(350, minDim), Math.max(300, minDim));
         }
     }
@@ -238,10 +829,18 @@ public class ClockGUI extends JFrame {
             }
         }
 
-        final int finalFrames = frames; // Need final variable for lambda
+        // Ask which replacement policy to simulate
+        Object policy = JOptionPane.showInputDialog(null, "Choose the replacement policy:", "Setup",
+                JOptionPane.QUESTION_MESSAGE, null, ReplacementPolicy.POLICY_NAMES, ReplacementPolicy.POLICY_NAMES[0]);
+        if (policy == null) {
+            System.out.println("Setup cancelled by user.");
+            System.exit(0); // Exit if user cancels
+        }
+
+        final ReplacementPolicy algorithm = ReplacementPolicy.create((String) policy, frames); // Need final variable for lambda
         // Ensure GUI creation happens on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
-            ClockGUI gui = new ClockGUI(finalFrames);
+            ClockGUI gui = new ClockGUI(algorithm);
             gui.setVisible(true);
         });
     }
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Optional instrumentation for {@link ClockAlgorithm}, attached with {@link ClockAlgorithm#setMetrics(ClockMetrics)}.
+ * Records histograms of how many frames the hand sweeps per fault (the real cost of a fault),
+ * the distance in requests between faults, and how long pages stay resident, plus the hit ratio
+ * of each window of requests. Time is counted in requests. Faults and unusually long sweeps are
+ * also emitted as JFR events while a flight recording is running.
+ * With no metrics attached the engine pays one null check per request.
+ * Usage: java ClockMetrics &lt;numFrames&gt; &lt;traceFile | -&gt; [csv | json] [windowSize]
+ */
+public class ClockMetrics {
+
+    /** Requests per hit-ratio window used by {@link #ClockMetrics()}. */
+    public static final int DEFAULT_WINDOW_SIZE = 10000;
+    /** Number of most recent windows kept. */
+    public static final int MAX_WINDOWS = 1024;
+    /** Sweeps longer than this many frames are reported as {@link LongSweepEvent}s by default. */
+    public static final int DEFAULT_LONG_SWEEP = 1024;
+
+    /**
+     * JFR event for one page fault.
+     */
+    @Name("cs4310.ClockFault")
+    @Label("Clock Page Fault")
+    @Category("Clock Replacement")
+    static class FaultEvent extends Event {
+        @Label("Page")
+        int page;
+        @Label("Victim Page")
+        @Description("Page evicted to make room, or -1 if the frame was empty")
+        int victimPage;
+        @Label("Frame")
+        int frame;
+        @Label("Sweep Length")
+        @Description("Frames the hand passed before finding the victim")
+        int sweepLength;
+    }
+
+    /**
+     * JFR event for a fault whose sweep passed more frames than the long-sweep threshold.
+     */
+    @Name("cs4310.ClockLongSweep")
+    @Label("Clock Long Sweep")
+    @Category("Clock Replacement")
+    static class LongSweepEvent extends Event {
+        @Label("Sweep Length")
+        int sweepLength;
+        @Label("Frames")
+        int numFrames;
+    }
+
+    private final Log2Histogram sweepLengths = new Log2Histogram();
+    private final Log2Histogram interFaultDistances = new Log2Histogram();
+    private final Log2Histogram residencyTimes = new Log2Histogram();
+    private final int windowSize;
+    private final int longSweep;
+
+    private long now; // Requests seen
+    private long lastFaultAt = -1;
+    private long[] loadedAt = new long[0]; // Request at which each frame's page was loaded
+
+    private int windowRequests;
+    private int windowHits;
+    private final float[] windowHitRatios = new float[MAX_WINDOWS]; // Ring of the most recent windows
+    private long windowsCompleted;
+
+    /**
+     * Constructor for ClockMetrics with the default window and long-sweep threshold.
+     */
+    public ClockMetrics() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_LONG_SWEEP);
+    }
+
+    /**
+     * Constructor for ClockMetrics.
+     * @param windowSize The number of requests in each hit-ratio window.
+     * @param longSweep Sweeps longer than this many frames are reported as long-sweep events.
+     */
+    public ClockMetrics(int windowSize, int longSweep) {
+        if (windowSize <= 0 || longSweep < 0) {
+            throw new IllegalArgumentException("Window size must be positive and the long-sweep threshold cannot be negative.");
+        }
+        this.windowSize = windowSize;
+        this.longSweep = longSweep;
+    }
+
+    /**
+     * Records a hit.
+     */
+    void recordHit() {
+        now++;
+        windowHits++;
+        endOfRequest();
+    }
+
+    /**
+     * Records a fault after its page has been loaded.
+     * @param page The page that faulted.
+     * @param victimPage The page evicted, or -1 if the frame was empty.
+     * @param frame The frame the page was loaded into.
+     * @param sweepLength The frames the hand passed over before reaching the victim.
+     * @param numFrames The current number of frames.
+     */
+    void recordFault(int page, int victimPage, int frame, int sweepLength, int numFrames) {
+        now++;
+        sweepLengths.record(sweepLength);
+        if (lastFaultAt >= 0) {
+            interFaultDistances.record(now - lastFaultAt);
+        }
+        lastFaultAt = now;
+        if (frame >= loadedAt.length) {
+            loadedAt = Arrays.copyOf(loadedAt, Math.max(frame + 1, Math.max(16, loadedAt.length * 2)));
+        }
+        if (victimPage != -1) {
+            residencyTimes.record(now - loadedAt[frame]);
+        }
+        loadedAt[frame] = now;
+
+        FaultEvent event = new FaultEvent(); // Scalar-replaced by the JIT when no recording wants it
+        if (event.isEnabled()) {
+            event.page = page;
+            event.victimPage = victimPage;
+            event.frame = frame;
+            event.sweepLength = sweepLength;
+            event.commit();
+        }
+        if (sweepLength > longSweep) {
+            LongSweepEvent longEvent = new LongSweepEvent();
+            if (longEvent.isEnabled()) {
+                longEvent.sweepLength = sweepLength;
+                longEvent.numFrames = numFrames;
+                longEvent.commit();
+            }
+        }
+        endOfRequest();
+    }
+
+    /**
+     * Records a page evicted outside a request, as when the engine shrinks.
+     */
+    void recordEviction(int frame) {
+        if (frame < loadedAt.length) {
+            residencyTimes.record(now - loadedAt[frame]);
+        }
+    }
+
+    /**
+     * Follows a page the engine moved to another frame, so its residency keeps counting.
+     */
+    void recordMove(int fromFrame, int toFrame) {
+        if (fromFrame >= loadedAt.length) {
+            return;
+        }
+        if (toFrame >= loadedAt.length) {
+            loadedAt = Arrays.copyOf(loadedAt, Math.max(toFrame + 1, loadedAt.length * 2));
+        }
+        loadedAt[toFrame] = loadedAt[fromFrame];
+    }
+
+    private void endOfRequest() {
+        if (++windowRequests == windowSize) {
+            windowHitRatios[(int) (windowsCompleted % MAX_WINDOWS)] = (float) windowHits / windowSize;
+            windowsCompleted++;
+            windowRequests = 0;
+            windowHits = 0;
+        }
+    }
+
+    // --- Results ---
+
+    public Log2Histogram getSweepLengths() {
+        return sweepLengths;
+    }
+
+    public Log2Histogram getInterFaultDistances() {
+        return interFaultDistances;
+    }
+
+    public Log2Histogram getResidencyTimes() {
+        return residencyTimes;
+    }
+
+    public long getRequests() {
+        return now;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Gets the hit ratios of the most recent completed windows, oldest first.
+     */
+    public double[] getWindowHitRatios() {
+        int kept = (int) Math.min(windowsCompleted, MAX_WINDOWS);
+        double[] ratios = new double[kept];
+        long first = windowsCompleted - kept;
+        for (int i = 0; i < kept; i++) {
+            ratios[i] = windowHitRatios[(int) ((first + i) % MAX_WINDOWS)];
+        }
+        return ratios;
+    }
+
+    /**
+     * Gets the index of the first window returned by {@link #getWindowHitRatios()}.
+     */
+    public long getFirstWindowIndex() {
+        return windowsCompleted - Math.min(windowsCompleted, MAX_WINDOWS);
+    }
+
+    /**
+     * Writes every histogram bucket and every kept window as CSV rows.
+     * Histogram rows are "metric,low,high,count"; window rows are "window_hit_ratio,index,first_request,ratio".
+     */
+    public void writeCsv(PrintStream out) {
+        out.println("metric,low,high,count");
+        writeHistogramCsv(out, "sweep_length", sweepLengths);
+        writeHistogramCsv(out, "inter_fault_distance", interFaultDistances);
+        writeHistogramCsv(out, "residency_time", residencyTimes);
+        double[] ratios = getWindowHitRatios();
+        long first = getFirstWindowIndex();
+        for (int i = 0; i < ratios.length; i++) {
+            out.printf(Locale.ROOT, "window_hit_ratio,%d,%d,%.6f%n", first + i, (first + i) * windowSize, ratios[i]);
+        }
+    }
+
+    private static void writeHistogramCsv(PrintStream out, String name, Log2Histogram histogram) {
+        for (int bucket = 0; bucket < histogram.getBucketsUsed(); bucket++) {
+            out.printf("%s,%d,%d,%d%n", name, Log2Histogram.bucketLow(bucket), Log2Histogram.bucketHigh(bucket),
+                    histogram.getBucketCount(bucket));
+        }
+    }
+
+    /**
+     * Writes the metrics as one JSON object.
+     */
+    public void writeJson(PrintStream out) {
+        out.println("{");
+        out.printf("  \"requests\": %d,%n", now);
+        writeHistogramJson(out, "sweepLength", sweepLengths);
+        writeHistogramJson(out, "interFaultDistance", interFaultDistances);
+        writeHistogramJson(out, "residencyTime", residencyTimes);
+        out.printf("  \"windowSize\": %d,%n", windowSize);
+        out.printf("  \"firstWindow\": %d,%n", getFirstWindowIndex());
+        out.print("  \"windowHitRatios\": [");
+        double[] ratios = getWindowHitRatios();
+        for (int i = 0; i < ratios.length; i++) {
+            out.printf(Locale.ROOT, i == 0 ? "%.6f" : ", %.6f", ratios[i]);
+        }
+        out.println("]");
+        out.println("}");
+    }
+
+    private static void writeHistogramJson(PrintStream out, String name, Log2Histogram histogram) {
+        out.printf(Locale.ROOT, "  \"%s\": {\"count\": %d, \"mean\": %.3f, \"p50\": %d, \"p99\": %d, \"max\": %d, \"buckets\": [",
+                name, histogram.getCount(), histogram.getMean(), histogram.getPercentile(50),
+                histogram.getPercentile(99), histogram.getMax());
+        for (int bucket = 0; bucket < histogram.getBucketsUsed(); bucket++) {
+            out.printf(bucket == 0 ? "[%d, %d, %d]" : ", [%d, %d, %d]", Log2Histogram.bucketLow(bucket),
+                    Log2Histogram.bucketHigh(bucket), histogram.getBucketCount(bucket));
+        }
+        out.println("]},");
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: java ClockMetrics <numFrames> <traceFile | -> [csv | json] [windowSize]");
+            System.exit(2);
+        }
+        try {
+            int numFrames = Integer.parseInt(args[0]);
+            String format = args.length > 2 ? args[2] : "csv";
+            int windowSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WINDOW_SIZE;
+            ClockAlgorithm clock = new ClockAlgorithm(numFrames);
+            ClockMetrics metrics = new ClockMetrics(windowSize, DEFAULT_LONG_SWEEP);
+            clock.setMetrics(metrics);
+            try (PageTrace trace = PageTrace.open(args[1])) {
+                clock.replay(trace);
+            }
+            if ("json".equalsIgnoreCase(format)) {
+                metrics.writeJson(System.out);
+            } else if ("csv".equalsIgnoreCase(format)) {
+                metrics.writeCsv(System.out);
+            } else {
+                throw new IllegalArgumentException("Unknown format: " + format);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Replay failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Implements CLOCK-Pro page replacement (Jiang, Chen and Zhang).
+ * Resident pages are either hot or cold, and recently evicted cold pages stay on the
+ * clock as non-resident test pages. A cold page that is referenced again while under
+ * test is promoted to hot, and the cold target adapts to how often that happens.
+ * Three hands share one circular list stored in int arrays:
+ * the cold hand finds victims, the hot hand demotes hot pages and the test hand expires tests.
+ * The hands run independently rather than pushing each other along, which keeps every
+ * sweep iterative; a test page passed by the hot hand simply ends its test period.
+ * Hits only set a reference bit, so they are O(1).
+ */
+public class ClockProAlgorithm extends AbstractReplacementPolicy {
+
+    private static final int NIL = -1;
+
+    // Page types
+    private static final byte COLD = 0;
+    private static final byte HOT = 1;
+    private static final byte TEST = 2; // Non-resident cold page still in its test period
+
+    private IntIntHashMap nodeIndex; // Maps page number -> node, for resident and test pages
+    private int[] nodePage;
+    private int[] nodeFrame; // Frame holding the node's page, or NIL for test pages
+    private byte[] nodeType;
+    private boolean[] referenced;
+    private int[] prev;
+    private int[] next;
+    private int[] frameNode; // Node whose page is in each frame
+
+    private int handHot = NIL;
+    private int handCold = NIL;
+    private int handTest = NIL;
+
+    private int countHot;
+    private int countCold;
+    private int countTest;
+    private int coldTarget; // Adaptive number of frames reserved for cold pages
+
+    private int[] freeNodes; // Stack of unused node slots
+    private int freeNodeCount;
+    private int[] freeFrames; // Stack of frames without a resident page
+    private int freeFrameCount;
+
+    /**
+     * Constructor for ClockProAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     */
+    public ClockProAlgorithm(int numFrames) {
+        super(numFrames);
+        int capacity = 2 * numFrames + 1; // Resident pages, test pages, and one being admitted
+        this.nodeIndex = new IntIntHashMap(capacity);
+        this.nodePage = new int[capacity];
+        this.nodeFrame = new int[capacity];
+        this.nodeType = new byte[capacity];
+        this.referenced = new boolean[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.frameNode = new int[numFrames];
+        this.freeNodes = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeNodes[i] = capacity - 1 - i;
+        }
+        this.freeNodeCount = capacity;
+        this.freeFrames = new int[numFrames];
+        for (int i = 0; i < numFrames; i++) {
+            freeFrames[i] = numFrames - 1 - i; // Fill frame 0 first
+        }
+        this.freeFrameCount = numFrames;
+        this.coldTarget = numFrames;
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int node = nodeIndex.get(pageNumber);
+        if (node != NIL && nodeType[node] != TEST) {
+            referenced[node] = true;
+            return recordHit(pageNumber, nodeFrame[node]);
+        }
+
+        recordFault(pageNumber);
+        if (node == NIL) {
+            // New page: admit it as cold
+            node = freeNodes[--freeNodeCount];
+            nodePage[node] = pageNumber;
+            nodeType[node] = COLD;
+            referenced[node] = false;
+            addNode(node);
+            countCold++;
+        } else {
+            // Re-referenced during its test period: the cold area is too small, and the page becomes hot
+            if (coldTarget < numFrames) {
+                coldTarget++;
+            }
+            referenced[node] = false;
+            nodeType[node] = HOT;
+            countTest--;
+            removeNode(node);
+            addNode(node);
+            countHot++;
+        }
+
+        int frame = freeFrames[--freeFrameCount];
+        nodeFrame[node] = frame;
+        frameNode[frame] = node;
+        return loadFrame(pageNumber, frame);
+    }
+
+    /**
+     * Makes room for one more resident page, then links a node in just behind the hot hand.
+     */
+    private void addNode(int node) {
+        while (countHot + countCold >= numFrames) {
+            runHandCold();
+        }
+        nodeIndex.put(nodePage[node], node);
+        if (handHot == NIL) {
+            prev[node] = node;
+            next[node] = node;
+            handHot = node;
+            handCold = node;
+            handTest = node;
+        } else {
+            int before = prev[handHot];
+            prev[node] = before;
+            next[node] = handHot;
+            next[before] = node;
+            prev[handHot] = node;
+        }
+        if (handCold == handHot) {
+            handCold = prev[handCold];
+        }
+    }
+
+    /**
+     * Unlinks a node from the clock and the page index, moving any hand that points at it back one step.
+     */
+    private void removeNode(int node) {
+        nodeIndex.remove(nodePage[node]);
+        int before = prev[node];
+        boolean last = before == node;
+        if (node == handHot) {
+            handHot = last ? NIL : before;
+        }
+        if (node == handCold) {
+            handCold = last ? NIL : before;
+        }
+        if (node == handTest) {
+            handTest = last ? NIL : before;
+        }
+        if (!last) {
+            int after = next[node];
+            next[before] = after;
+            prev[after] = before;
+        }
+    }
+
+    /**
+     * Advances the cold hand by one node: referenced cold pages are promoted to hot,
+     * unreferenced ones are evicted and kept as test pages.
+     */
+    private void runHandCold() {
+        int node = handCold;
+        if (nodeType[node] == COLD) {
+            if (referenced[node]) {
+                nodeType[node] = HOT;
+                referenced[node] = false;
+                countCold--;
+                countHot++;
+            } else {
+                nodeType[node] = TEST;
+                int frame = nodeFrame[node];
+                evictFrame(frame);
+                nodeFrame[node] = NIL;
+                freeFrames[freeFrameCount++] = frame;
+                countCold--;
+                countTest++;
+                while (countTest > numFrames) {
+                    runHandTest();
+                }
+            }
+        }
+        handCold = next[handCold];
+        while (numFrames - coldTarget < countHot) {
+            runHandHot();
+        }
+    }
+
+    /**
+     * Advances the hot hand by one node: referenced hot pages get another lap,
+     * unreferenced ones are demoted to cold. Test pages it passes have run out their test period.
+     */
+    private void runHandHot() {
+        int node = handHot;
+        if (nodeType[node] == HOT) {
+            if (referenced[node]) {
+                referenced[node] = false;
+            } else {
+                nodeType[node] = COLD;
+                countHot--;
+                countCold++;
+            }
+        } else if (nodeType[node] == TEST) {
+            expireTest(node); // Moves the hot hand back one node
+        }
+        handHot = next[handHot];
+    }
+
+    /**
+     * Advances the test hand by one node, ending the test period of any test page it passes.
+     */
+    private void runHandTest() {
+        int node = handTest;
+        if (nodeType[node] == TEST) {
+            expireTest(node); // Moves the test hand back one node
+        }
+        handTest = next[handTest];
+    }
+
+    /**
+     * Drops a test page whose test period ended without a reference.
+     */
+    private void expireTest(int node) {
+        removeNode(node);
+        freeNodes[freeNodeCount++] = node;
+        countTest--;
+        // A test page expired unused, so the cold area can shrink
+        if (coldTarget > 1) {
+            coldTarget--;
+        }
+    }
+
+    /**
+     * Reports 1 for frames holding a hot page.
+     */
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return pages[frame] != EMPTY && nodeType[frameNode[frame]] == HOT ? 1 : 0;
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK-Pro";
+    }
+}
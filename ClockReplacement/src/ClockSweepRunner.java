@@ -0,0 +1,173 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Replays one trace through many (policy, frame count) combinations in parallel.
+ * Clock and most other policies have no stack property, so each frame count needs its own run;
+ * the runs are independent and are spread over a ForkJoinPool. The trace is loaded once and shared
+ * read-only by every task.
+ * Usage: java ClockSweepRunner &lt;traceFile&gt; &lt;minFrames&gt; &lt;maxFrames&gt; &lt;step&gt; [policy[,policy...] | all] [threads]
+ */
+public class ClockSweepRunner {
+
+    /**
+     * Outcome of one simulation in the sweep.
+     */
+    public static class Result {
+        public final String policy;
+        public final int numFrames;
+        public final long pageHits;
+        public final long pageFaults;
+        public final long elapsedNanos;
+
+        Result(String policy, int numFrames, long pageHits, long pageFaults, long elapsedNanos) {
+            this.policy = policy;
+            this.numFrames = numFrames;
+            this.pageHits = pageHits;
+            this.pageFaults = pageFaults;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getHitRatio() {
+            long total = pageHits + pageFaults;
+            return total == 0 ? 0.0 : (double) pageHits / total;
+        }
+    }
+
+    private final int[] trace;
+    private int[] nextUse; // Shared by every OPT task, computed on first need
+
+    /**
+     * Constructor for ClockSweepRunner.
+     * @param trace The reference string. It is not copied and must not change during a sweep.
+     */
+    public ClockSweepRunner(int[] trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Runs every combination of policy and frame count.
+     * @param policies Policy names accepted by {@link ReplacementPolicy#create(String, int)}, or "OPT".
+     * @param frameCounts The frame counts to simulate.
+     * @param pool The pool to run the simulations on.
+     * @return One result per combination, ordered by policy and then frame count.
+     */
+    public Result[] sweep(String[] policies, int[] frameCounts, ForkJoinPool pool) {
+        for (String policy : policies) {
+            if ("OPT".equalsIgnoreCase(policy) && nextUse == null) {
+                nextUse = OPTAlgorithm.computeNextUse(trace);
+            }
+        }
+        Result[] results = new Result[policies.length * frameCounts.length];
+        pool.invoke(new SweepTask(policies, frameCounts, results, 0, results.length));
+        return results;
+    }
+
+    /**
+     * Splits the list of runs in half until each task holds a single run.
+     */
+    private class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] policies;
+        private final int[] frameCounts;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        SweepTask(String[] policies, int[] frameCounts, Result[] results, int from, int to) {
+            this.policies = policies;
+            this.frameCounts = frameCounts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 0) {
+                return; // No policies or no frame counts
+            }
+            if (to - from == 1) {
+                String policy = policies[from / frameCounts.length];
+                int numFrames = frameCounts[from % frameCounts.length];
+                results[from] = simulate(policy, numFrames);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(policies, frameCounts, results, from, middle),
+                    new SweepTask(policies, frameCounts, results, middle, to));
+        }
+    }
+
+    private Result simulate(String policy, int numFrames) {
+        ReplacementPolicy algorithm = "OPT".equalsIgnoreCase(policy)
+                ? new OPTAlgorithm(numFrames, trace, nextUse)
+                : ReplacementPolicy.create(policy, numFrames);
+        long start = System.nanoTime();
+        algorithm.replay(trace);
+        long elapsed = System.nanoTime() - start;
+        return new Result(algorithm.getName(), numFrames, algorithm.getPageHits(), algorithm.getPageFaults(), elapsed);
+    }
+
+    /**
+     * Writes the results as CSV with one row per run.
+     */
+    public static void writeCsv(PrintStream out, Result[] results) {
+        out.println("policy,frames,hits,faults,hit_ratio,ns_per_request");
+        for (Result r : results) {
+            long requests = r.pageHits + r.pageFaults;
+            double nanosPerRequest = requests == 0 ? 0.0 : (double) r.elapsedNanos / requests;
+            out.printf("%s,%d,%d,%d,%.6f,%.1f%n", r.policy, r.numFrames, r.pageHits, r.pageFaults, r.getHitRatio(), nanosPerRequest);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4 || args.length > 6) {
+            System.err.println("Usage: java ClockSweepRunner <traceFile> <minFrames> <maxFrames> <step> [policy[,policy...] | all] [threads]");
+            System.exit(2);
+        }
+        try {
+            int minFrames = Integer.parseInt(args[1]);
+            int maxFrames = Integer.parseInt(args[2]);
+            int step = Integer.parseInt(args[3]);
+            if (minFrames <= 0 || maxFrames < minFrames || step <= 0) {
+                throw new IllegalArgumentException("Frame range must satisfy 0 < min <= max with a positive step.");
+            }
+            String[] policies = { "Clock" };
+            if (args.length > 4) {
+                if ("all".equalsIgnoreCase(args[4])) {
+                    List<String> all = new ArrayList<>(List.of(ReplacementPolicy.POLICY_NAMES));
+                    all.add("OPT");
+                    policies = all.toArray(new String[0]);
+                } else {
+                    policies = args[4].split(",");
+                    for (int i = 0; i < policies.length; i++) {
+                        policies[i] = policies[i].trim(); // Accept "Clock, LRU" as ClockTraceRunner does
+                    }
+                }
+            }
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+            List<Integer> counts = new ArrayList<>();
+            for (long f = minFrames; f <= maxFrames; f += step) {
+                counts.add((int) f);
+            }
+            int[] frameCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+
+            int[] trace = PageTraceReader.readAll(args[0]);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                writeCsv(System.out, new ClockSweepRunner(trace).sweep(policies, frameCounts, pool));
+            } finally {
+                pool.shutdown();
+            }
+        } catch (Exception e) {
+            System.err.println("Sweep failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
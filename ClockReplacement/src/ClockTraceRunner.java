@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Command-line entry point that replays a trace file through the replacement engines without a GUI.
+ * Usage: java ClockTraceRunner &lt;numFrames&gt; &lt;traceFile | -&gt; [policy[,policy...] | all]
+ * Each policy replays the same trace, so hit ratio and CPU cost per request can be compared directly.
+ * OPT is also accepted and is included in "all" as the upper bound on hit ratio.
+ */
+public class ClockTraceRunner {
+
+    private static final String USAGE = "Usage: java ClockTraceRunner <numFrames> <traceFile | -> [policy[,policy...] | all]";
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        int numFrames;
+        try {
+            numFrames = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            System.err.println("Number of frames must be an integer.");
+            System.exit(2);
+            return;
+        }
+
+        String[] policies = { "Clock" };
+        if (args.length == 3) {
+            if ("all".equalsIgnoreCase(args[2])) {
+                policies = Arrays.copyOf(ReplacementPolicy.POLICY_NAMES, ReplacementPolicy.POLICY_NAMES.length + 1);
+                policies[policies.length - 1] = "OPT";
+            } else {
+                policies = args[2].split(",");
+            }
+        }
+        if (policies.length > 1 && "-".equals(args[1])) {
+            System.err.println("Standard input can only be replayed through one policy.");
+            System.exit(2);
+        }
+
+        printHeader(numFrames);
+        for (String name : policies) {
+            try {
+                long start = System.nanoTime();
+                ReplacementPolicy algorithm = replay(name.trim(), numFrames, args[1]);
+                long elapsed = System.nanoTime() - start;
+                printStats(algorithm, elapsed);
+            } catch (Exception e) {
+                System.err.println("Replay failed for " + name + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Replays the trace file through one policy.
+     * OPT needs the whole future, so it goes through its own chunked replay.
+     */
+    private static ReplacementPolicy replay(String name, int numFrames, String path) throws IOException {
+        if ("OPT".equalsIgnoreCase(name)) {
+            return OPTAlgorithm.replayFile(numFrames, path, OPTAlgorithm.DEFAULT_CHUNK_SIZE);
+        }
+        try (PageTrace trace = PageTrace.open(path)) {
+            ReplacementPolicy algorithm = ReplacementPolicy.create(name, numFrames);
+            if (algorithm instanceof WSClockAlgorithm) {
+                // WSClock is the only policy that distinguishes writes
+                WSClockAlgorithm wsClock = (WSClockAlgorithm) algorithm;
+                while (trace.hasNext()) {
+                    int pageNumber = trace.nextInt();
+                    wsClock.access(pageNumber, trace.isLastWrite());
+                }
+            } else {
+                algorithm.replay(trace);
+            }
+            return algorithm;
+        }
+    }
+
+    private static void printHeader(int numFrames) {
+        System.out.println("Frames: " + numFrames);
+        System.out.printf("%-10s %14s %14s %14s %9s %10s%n", "Policy", "Requests", "Hits", "Faults", "Hit ratio", "ns/request");
+    }
+
+    /**
+     * Prints one row of replay statistics. The time includes parsing the trace,
+     * and for OPT the next-use preprocessing as well.
+     */
+    private static void printStats(ReplacementPolicy algorithm, long elapsedNanos) {
+        long requests = algorithm.getPageHits() + algorithm.getPageFaults();
+        double nanosPerRequest = requests == 0 ? 0.0 : (double) elapsedNanos / requests;
+        System.out.printf("%-10s %14d %14d %14d %9.4f %10.1f%n", algorithm.getName(), requests,
+                algorithm.getPageHits(), algorithm.getPageFaults(), algorithm.getHitRatio(), nanosPerRequest);
+        if (algorithm instanceof WSClockAlgorithm) {
+            WSClockAlgorithm wsClock = (WSClockAlgorithm) algorithm;
+            System.out.printf("%-10s clean evictions %d, dirty evictions %d, write-backs %d, I/O cost %d, stall time %d%n", "",
+                    wsClock.getCleanEvictions(), wsClock.getDirtyEvictions(), wsClock.getWriteBacks(),
+                    wsClock.getModeledIoCost(), wsClock.getStallTime());
+        }
+    }
+}
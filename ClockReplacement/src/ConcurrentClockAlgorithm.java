@@ -0,0 +1,227 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Clock Page Replacement Algorithm for modelling a shared buffer pool.
+ *
+ * Hits take no lock and allocate nothing: they look the page up in a primitive concurrent index
+ * and set its reference bit, skipping the atomic write when the bit is already set. On a fault the
+ * hand is advanced through an atomic counter, and each frame it lands on must be claimed with a CAS
+ * before it can be cleared or evicted, so two faulting threads never pick the same victim. A page
+ * is only loaded by the thread that installs its placeholder in the index, and an evicted page is
+ * cleared from its frame before it is unmapped, so no page is ever in two frames.
+ */
+public class ConcurrentClockAlgorithm {
+
+    private static final int EMPTY = -1; // Page number stored in an empty frame
+    private static final int LOADING = -2; // Index placeholder while a page is being faulted in
+
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int numFrames;
+    private final AtomicLongArray pages; // Per frame: version << 32 | page number (-1 if empty)
+    private final long[] referenceBits; // One reference bit per frame, accessed through BITS
+    private final AtomicIntegerArray frameLocks; // 1 while a faulting thread owns the frame
+    private final ConcurrentIntIntHashMap pageIndex; // Page number -> frame, or LOADING
+    private final AtomicLong clockHand = new AtomicLong();
+    private final LongAdder pageHits = new LongAdder();
+    private final LongAdder pageFaults = new LongAdder();
+
+    /**
+     * Constructor for ConcurrentClockAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     */
+    public ConcurrentClockAlgorithm(int numFrames) {
+        if (numFrames <= 0) {
+            throw new IllegalArgumentException("Number of frames must be positive.");
+        }
+        this.numFrames = numFrames;
+        long[] initial = new long[numFrames];
+        Arrays.fill(initial, pack(0, EMPTY)); // Initialize with empty frames
+        this.pages = new AtomicLongArray(initial);
+        this.referenceBits = new long[(numFrames + 63) >>> 6];
+        this.frameLocks = new AtomicIntegerArray(numFrames);
+        this.pageIndex = new ConcurrentIntIntHashMap(numFrames, 64);
+    }
+
+    /**
+     * Requests a page. Safe to call from any number of threads.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return {@link ReplacementPolicy#HIT}, {@link ReplacementPolicy#FAULT_EMPTY} or {@link ReplacementPolicy#FAULT_REPLACED}.
+     */
+    public int access(int pageNumber) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number cannot be negative.");
+        }
+        while (true) {
+            int frame = pageIndex.get(pageNumber);
+            if (frame >= 0) {
+                if ((int) pages.get(frame) == pageNumber) {
+                    setReferenceBit(frame);
+                    pageHits.increment();
+                    return ReplacementPolicy.HIT;
+                }
+                // We saw the mapping just as the page was evicted; retry until it is unmapped
+                Thread.onSpinWait();
+            } else if (frame == LOADING) {
+                Thread.onSpinWait(); // Another thread is loading this page
+            } else if (pageIndex.putIfAbsent(pageNumber, LOADING) == ConcurrentIntIntHashMap.NO_VALUE) {
+                return fault(pageNumber);
+            }
+        }
+    }
+
+    /**
+     * Loads a page whose LOADING placeholder this thread installed.
+     */
+    private int fault(int pageNumber) {
+        pageFaults.increment();
+        int victim = claimVictim();
+        long word = pages.get(victim);
+        int oldPage = (int) word;
+        int version = (int) (word >>> 32);
+        if (oldPage != EMPTY) {
+            // Clear the frame before unmapping: once the old page is unmapped another thread may fault
+            // it into a different frame, and by then this frame must no longer hold it
+            pages.set(victim, pack(++version, EMPTY));
+            pageIndex.remove(oldPage, victim);
+        }
+        pages.set(victim, pack(++version, pageNumber));
+        setReferenceBit(victim); // New page gets reference bit 1
+        pageIndex.put(pageNumber, victim);
+        frameLocks.set(victim, 0);
+        return oldPage == EMPTY ? ReplacementPolicy.FAULT_EMPTY : ReplacementPolicy.FAULT_REPLACED;
+    }
+
+    /**
+     * Packs a frame's version and page number into one word, so a reader can tell whether a frame
+     * changed between two reads even if it holds the same page again.
+     */
+    private static long pack(int version, int page) {
+        return (long) version << 32 | (page & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Advances the shared hand until it claims a frame whose reference bit is 0.
+     * Referenced frames it claims get their bit cleared and are released again.
+     * @return The claimed victim frame, still locked by this thread.
+     */
+    private int claimVictim() {
+        while (true) {
+            int frame = (int) Long.remainderUnsigned(clockHand.getAndIncrement(), numFrames);
+            if (!frameLocks.compareAndSet(frame, 0, 1)) {
+                continue; // Another faulting thread owns it
+            }
+            if (isReferenced(frame)) {
+                clearReferenceBit(frame); // Second chance
+                frameLocks.set(frame, 0);
+                continue;
+            }
+            return frame;
+        }
+    }
+
+    private boolean isReferenced(int frame) {
+        return ((long) BITS.getOpaque(referenceBits, frame >>> 6) & (1L << frame)) != 0;
+    }
+
+    private void setReferenceBit(int frame) {
+        long mask = 1L << frame;
+        int word = frame >>> 6;
+        // Read first: on a hot page the bit is almost always set, and skipping the write avoids cache-line traffic
+        if (((long) BITS.getOpaque(referenceBits, word) & mask) == 0) {
+            BITS.getAndBitwiseOr(referenceBits, word, mask);
+        }
+    }
+
+    private void clearReferenceBit(int frame) {
+        BITS.getAndBitwiseAnd(referenceBits, frame >>> 6, ~(1L << frame));
+    }
+
+    /**
+     * Verifies that no page is in two frames at once. Safe to call while other threads are calling
+     * {@link #access(int)}: when a page turns up in a second frame, the first frame is read again,
+     * and only if it has not changed in between did both frames hold the page at the same time.
+     * @throws IllegalStateException If a page is found in two frames.
+     */
+    public void checkNoPageInTwoFrames() {
+        IntIntHashMap seen = new IntIntHashMap(numFrames);
+        long[] words = new long[numFrames];
+        for (int frame = 0; frame < numFrames; frame++) {
+            long word = pages.get(frame);
+            words[frame] = word;
+            int page = (int) word;
+            if (page == EMPTY) {
+                continue;
+            }
+            int other = seen.put(page, frame);
+            if (other != IntIntHashMap.NO_VALUE && pages.get(other) == words[other]) {
+                throw new IllegalStateException("Page " + page + " is in frames " + other + " and " + frame + ".");
+            }
+        }
+    }
+
+    /**
+     * Verifies that no page is in two frames and that the index agrees with the frames.
+     * Only meaningful while no other thread is calling {@link #access(int)}.
+     * @throws IllegalStateException If an inconsistency is found.
+     */
+    public void checkConsistency() {
+        IntIntHashMap seen = new IntIntHashMap(numFrames);
+        for (int frame = 0; frame < numFrames; frame++) {
+            int page = getPageAt(frame);
+            if (page == EMPTY) {
+                continue;
+            }
+            int other = seen.put(page, frame);
+            if (other != IntIntHashMap.NO_VALUE) {
+                throw new IllegalStateException("Page " + page + " is in frames " + other + " and " + frame + ".");
+            }
+            int mapped = pageIndex.get(page);
+            if (mapped != frame) {
+                throw new IllegalStateException("Index maps page " + page + " to " + mapped + " but it is in frame " + frame + ".");
+            }
+        }
+        if (pageIndex.size() != seen.size()) {
+            throw new IllegalStateException("Index holds " + pageIndex.size() + " pages but frames hold " + seen.size() + ".");
+        }
+    }
+
+    public int getPageAt(int frame) {
+        return (int) pages.get(frame);
+    }
+
+    public int getReferenceBitAt(int frame) {
+        return isReferenced(frame) ? 1 : 0;
+    }
+
+    public int getClockHand() {
+        return (int) Long.remainderUnsigned(clockHand.get(), numFrames);
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public long getPageHits() {
+        return pageHits.sum();
+    }
+
+    public long getPageFaults() {
+        return pageFaults.sum();
+    }
+
+    public double getHitRatio() {
+        long hits = pageHits.sum();
+        long totalRequests = hits + pageFaults.sum();
+        if (totalRequests == 0) {
+            return 0.0;
+        }
+        return (double) hits / totalRequests;
+    }
+}
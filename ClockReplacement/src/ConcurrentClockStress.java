@@ -0,0 +1,88 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress harness for {@link ConcurrentClockAlgorithm}.
+ * Hammers one shared engine from increasing numbers of threads with a skewed page mix while
+ * another thread repeatedly checks that no page is in two frames, checks the engine again once
+ * each round is over, and prints the throughput so hit scaling across cores can be seen.
+ * Usage: java ConcurrentClockStress [numFrames [pages [requestsPerThread [maxThreads]]]]
+ */
+public class ConcurrentClockStress {
+
+    public static void main(String[] args) throws InterruptedException {
+        int numFrames = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int pageRange = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int requestsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%8s %14s %9s %14s %8s%n", "Threads", "Requests", "Hit ratio", "Requests/s", "Checks");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            runRound(numFrames, pageRange, requestsPerThread, threads);
+        }
+        System.out.println("No page was ever found in two frames.");
+    }
+
+    private static void runRound(int numFrames, int pageRange, int requestsPerThread, int threads) throws InterruptedException {
+        ConcurrentClockAlgorithm algorithm = new ConcurrentClockAlgorithm(numFrames);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long seed = 31L * t + 7;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < requestsPerThread; i++) {
+                    // Squaring a uniform draw skews requests towards low page numbers
+                    double u = random.nextDouble();
+                    algorithm.access((int) (u * u * pageRange));
+                }
+            });
+            workers[t].start();
+        }
+
+        // Checks for duplicates while the workers run, since a page in two frames may not outlive the round
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long[] checks = new long[1];
+        Thread checker = new Thread(() -> {
+            try {
+                start.await();
+                while (!Thread.currentThread().isInterrupted()) {
+                    algorithm.checkNoPageInTwoFrames();
+                    checks[0]++;
+                }
+            } catch (InterruptedException e) {
+                // Round is over
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        checker.start();
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        checker.interrupt();
+        checker.join();
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        algorithm.checkConsistency();
+        long requests = (long) requestsPerThread * threads;
+        if (algorithm.getPageHits() + algorithm.getPageFaults() != requests) {
+            throw new IllegalStateException("Lost requests: counted " + (algorithm.getPageHits() + algorithm.getPageFaults())
+                    + " of " + requests + ".");
+        }
+        System.out.printf("%8d %14d %9.4f %14.0f %8d%n", threads, requests, algorithm.getHitRatio(), requests / (elapsed / 1e9),
+                checks[0]);
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent open-addressing hash map from non-negative int keys to int values.
+ * Each entry packs its key and value into one long of an {@link AtomicLongArray}, so a lookup
+ * reads both with a single volatile load and never boxes, allocates or locks.
+ * The table is split into stripes by hash; writers lock only their stripe. Removed entries
+ * become tombstones instead of shifting later entries back, so an entry never moves while
+ * readers probe past it. A stripe full of tombstones is rebuilt into a fresh table, and readers
+ * still probing the old one simply finish there, so callers must tolerate a lookup that misses
+ * a key being written concurrently or returns a value it was just replaced with.
+ */
+public class ConcurrentIntIntHashMap {
+
+    /** Value returned by {@link #get(int)} and the update methods when the key is absent. */
+    public static final int NO_VALUE = -1;
+
+    private static final int EMPTY_KEY = -1; // Marks a slot that was never used
+    private static final int TOMBSTONE_KEY = -2; // Marks a slot whose entry was removed
+    private static final long EMPTY = pack(EMPTY_KEY, 0);
+    private static final long TOMBSTONE = pack(TOMBSTONE_KEY, 0);
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * One independently locked part of the table.
+     */
+    private static final class Stripe {
+        volatile AtomicLongArray table;
+        int live; // Entries holding a key
+        int used; // Slots that are not EMPTY, live or tombstone
+
+        Stripe(int capacity) {
+            table = emptyTable(capacity);
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeShift; // Hash bits above this pick the stripe
+
+    /**
+     * Constructor for ConcurrentIntIntHashMap.
+     * @param expectedSize The number of entries the map should hold without rebuilding.
+     * @param stripeCount The number of independently locked stripes; rounded up to a power of two.
+     */
+    public ConcurrentIntIntHashMap(int expectedSize, int stripeCount) {
+        if (expectedSize < 0 || stripeCount <= 0 || stripeCount > (1 << 16)) {
+            throw new IllegalArgumentException("Expected size cannot be negative and stripe count must be from 1 to 65536.");
+        }
+        int count = Integer.highestOneBit(stripeCount);
+        if (count < stripeCount) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        stripeShift = 32 - Integer.numberOfTrailingZeros(count);
+        int perStripe = tableSizeFor(expectedSize / count + 1);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Looks up the value stored for a key without locking.
+     * @param key The key to look up; must not be negative.
+     * @return The mapped value, or {@link #NO_VALUE} if the key is absent.
+     */
+    public int get(int key) {
+        int h = hash(key);
+        AtomicLongArray table = stripeFor(h).table;
+        int mask = table.length() - 1;
+        int slot = h & mask;
+        while (true) {
+            long entry = table.get(slot);
+            int k = (int) (entry >>> 32);
+            if (k == key) {
+                return (int) entry;
+            }
+            if (k == EMPTY_KEY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Maps a key to a value only if the key is absent.
+     * @param key The key to store; must not be negative.
+     * @param value The value to associate with the key; must not be {@link #NO_VALUE}.
+     * @return The value already mapped, or {@link #NO_VALUE} if this call stored the mapping.
+     */
+    public int putIfAbsent(int key, int value) {
+        return update(key, value, false);
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous mapping.
+     * @param key The key to store; must not be negative.
+     * @param value The value to associate with the key; must not be {@link #NO_VALUE}.
+     * @return The previous value, or {@link #NO_VALUE} if the key was absent.
+     */
+    public int put(int key, int value) {
+        return update(key, value, true);
+    }
+
+    private int update(int key, int value, boolean replace) {
+        if (key < 0 || value == NO_VALUE) {
+            throw new IllegalArgumentException("Key cannot be negative and value cannot be NO_VALUE.");
+        }
+        int h = hash(key);
+        Stripe stripe = stripeFor(h);
+        synchronized (stripe) {
+            AtomicLongArray table = stripe.table;
+            int mask = table.length() - 1;
+            int slot = h & mask;
+            int reusable = -1; // First tombstone on the probe run, filled if the key is absent
+            while (true) {
+                long entry = table.get(slot);
+                int k = (int) (entry >>> 32);
+                if (k == key) {
+                    if (replace) {
+                        table.set(slot, pack(key, value));
+                    }
+                    return (int) entry;
+                }
+                if (k == TOMBSTONE_KEY && reusable < 0) {
+                    reusable = slot;
+                } else if (k == EMPTY_KEY) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Writers to this stripe are serialized, so the key cannot appear further along meanwhile
+            if (reusable >= 0) {
+                table.set(reusable, pack(key, value));
+            } else {
+                table.set(slot, pack(key, value));
+                stripe.used++;
+            }
+            stripe.live++;
+            if (stripe.used > table.length() >>> 1) {
+                rebuild(stripe);
+            }
+            return NO_VALUE;
+        }
+    }
+
+    /**
+     * Removes a key only if it is mapped to the given value.
+     * @param key The key to remove.
+     * @param value The value the key must be mapped to.
+     * @return true if the mapping was removed.
+     */
+    public boolean remove(int key, int value) {
+        if (key < 0) {
+            return false;
+        }
+        int h = hash(key);
+        Stripe stripe = stripeFor(h);
+        synchronized (stripe) {
+            AtomicLongArray table = stripe.table;
+            int mask = table.length() - 1;
+            int slot = h & mask;
+            while (true) {
+                long entry = table.get(slot);
+                int k = (int) (entry >>> 32);
+                if (k == key) {
+                    if ((int) entry != value) {
+                        return false;
+                    }
+                    table.set(slot, TOMBSTONE);
+                    stripe.live--;
+                    return true;
+                }
+                if (k == EMPTY_KEY) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Counts the entries. Only exact while no other thread is writing.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.live;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Copies a stripe's live entries into a new table sized for them and publishes it.
+     * The old table is left untouched, so readers probing it still terminate.
+     */
+    private void rebuild(Stripe stripe) {
+        AtomicLongArray old = stripe.table;
+        int capacity = tableSizeFor(stripe.live);
+        if (capacity < old.length() && stripe.live * 4 > capacity) {
+            capacity = old.length(); // Mostly tombstones: clean up at the same size instead of shrinking and refilling
+        }
+        long[] entries = new long[capacity];
+        Arrays.fill(entries, EMPTY);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length(); i++) {
+            long entry = old.get(i);
+            int k = (int) (entry >>> 32);
+            if (k >= 0) {
+                int slot = hash(k) & mask;
+                while (entries[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                entries[slot] = entry;
+            }
+        }
+        stripe.used = stripe.live;
+        stripe.table = new AtomicLongArray(entries);
+    }
+
+    private Stripe stripeFor(int h) {
+        return stripes[stripeShift == 32 ? 0 : h >>> stripeShift];
+    }
+
+    private static long pack(int key, int value) {
+        return (long) key << 32 | (value & 0xFFFFFFFFL);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential page numbers
+        return h ^ (h >>> 16);
+    }
+
+    private static AtomicLongArray emptyTable(int capacity) {
+        long[] entries = new long[capacity];
+        Arrays.fill(entries, EMPTY);
+        return new AtomicLongArray(entries);
+    }
+
+    /**
+     * Computes a power-of-two table size that holds the given number of entries at a quarter load,
+     * leaving room for tombstones before a rebuild is needed.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4);
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Implements First-In First-Out page replacement.
+ * Frames are filled in order and reused in the same order, so the oldest
+ * page is always the one under a single circular pointer.
+ */
+public class FIFOAlgorithm extends AbstractReplacementPolicy {
+
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private int nextVictim; // Frame holding the oldest page
+
+    /**
+     * Constructor for FIFOAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     */
+    public FIFOAlgorithm(int numFrames) {
+        super(numFrames);
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.nextVictim = 0;
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int foundIndex = pageIndex.get(pageNumber);
+        if (foundIndex != -1) {
+            return recordHit(pageNumber, foundIndex); // Hits do not change the order
+        }
+
+        recordFault(pageNumber);
+        int victim = nextVictim;
+        if (pages[victim] != EMPTY) {
+            pageIndex.remove(evictFrame(victim));
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        if (pageNumber != EMPTY) {
+            pageIndex.put(pageNumber, victim);
+        }
+        if (++nextVictim == numFrames) {
+            nextVictim = 0;
+        }
+        return outcome;
+    }
+
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return 0; // FIFO keeps no reference information
+    }
+
+    @Override
+    public int getClockHand() {
+        return nextVictim;
+    }
+
+    @Override
+    public String getName() {
+        return "FIFO";
+    }
+}
@@ -0,0 +1,180 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Colors a grid of cells from the frames of a replacement engine, for memories too large to draw
+ * frame by frame. Each cell covers a run of consecutive frames and is colored either by the share of
+ * them whose reference bit is set or by how long their pages have been resident.
+ *
+ * {@link #update(ReplacementPolicy)} reads the engine and records which cells changed color, and
+ * {@link #drainInto(BufferedImage)} writes only those cells into an image with one pixel per cell.
+ * Reading the engine costs one pass over the frames and can run on a worker thread; draining costs
+ * at most one step per cell, so the event thread's work does not grow with the number of frames.
+ * Methods are synchronized so one thread can update while another drains.
+ */
+public class FrameHeatmap {
+
+    /**
+     * What a cell's color shows.
+     */
+    public enum Mode {
+        /** The share of the cell's occupied frames whose reference bit is set. */
+        REFERENCE_BITS,
+        /** The mean time the cell's pages have been resident, on a log scale. */
+        RESIDENCY_AGE
+    }
+
+    private static final int LEVELS = 16; // Color steps between the two ends of a scale
+    private static final int EMPTY_COLOR = 0xFFFFFFFF;
+    private static final int COLD_COLOR = 0xFFD9D9D9; // No referenced frames
+    private static final int HOT_COLOR = 0xFF1B7837; // Every frame referenced
+    private static final int YOUNG_COLOR = 0xFFFDE725; // Loaded just now
+    private static final int OLD_COLOR = 0xFF30306B; // Resident since the first request
+
+    // Copy of the engine's frames as of the last update
+    private int numFrames;
+    private int[] pages = new int[0];
+    private boolean[] referenced = new boolean[0];
+    private long[] loadedAt = new long[0]; // Request count when each frame's page was first seen
+    private long now; // Requests the engine had served at the last update
+
+    private Mode mode = Mode.REFERENCE_BITS;
+    private int framesPerCell = 1;
+    private int[] cellColors = new int[0];
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtyCells = new int[0]; // The cells flagged in dirty, in the order they changed
+    private int dirtyCount;
+
+    /**
+     * Copies the engine's frames and recolors the cells. The caller must keep the engine from
+     * changing during the call.
+     */
+    public synchronized void update(ReplacementPolicy algorithm) {
+        now = algorithm.getPageHits() + algorithm.getPageFaults();
+        int frames = algorithm.getNumFrames();
+        if (frames != numFrames) {
+            int kept = Math.min(frames, numFrames);
+            pages = Arrays.copyOf(pages, frames);
+            Arrays.fill(pages, kept, frames, -1);
+            referenced = Arrays.copyOf(referenced, frames);
+            loadedAt = Arrays.copyOf(loadedAt, frames);
+            numFrames = frames;
+        }
+        for (int i = 0; i < frames; i++) {
+            int page = algorithm.getPageAt(i);
+            if (page != pages[i]) {
+                pages[i] = page;
+                loadedAt[i] = now;
+            }
+            referenced[i] = algorithm.getReferenceBitAt(i) > 0;
+        }
+        recolor();
+    }
+
+    /**
+     * Changes what the cells show and how many frames each covers, and marks every cell for redrawing.
+     */
+    public synchronized void setLayout(Mode mode, int framesPerCell) {
+        if (framesPerCell <= 0) {
+            throw new IllegalArgumentException("Each cell must cover at least one frame.");
+        }
+        this.mode = mode;
+        this.framesPerCell = framesPerCell;
+        cellColors = new int[0]; // Forces recolor to rebuild and redraw every cell
+        recolor();
+    }
+
+    /**
+     * Writes the cells that changed since the last drain into an image, one pixel per cell in rows
+     * as wide as the image. Cells that do not fit are left for a larger image.
+     * @return The changed area in cell coordinates, or null if nothing changed.
+     */
+    public synchronized Rectangle drainInto(BufferedImage image) {
+        int columns = image.getWidth();
+        int capacity = columns * image.getHeight();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyCells[i];
+            dirty[cell] = false;
+            if (cell >= capacity) {
+                continue;
+            }
+            int x = cell % columns;
+            int y = cell / columns;
+            image.setRGB(x, y, cellColors[cell]);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        dirtyCount = 0;
+        return maxX < 0 ? null : new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Recomputes every cell's color from the copied frames and flags the ones that changed.
+     */
+    private void recolor() {
+        int cells = (int) (((long) numFrames + framesPerCell - 1) / framesPerCell);
+        if (cellColors.length != cells) {
+            cellColors = new int[cells];
+            Arrays.fill(cellColors, -1); // Not a color recolor produces, so every cell is flagged
+            dirty = new boolean[cells];
+            dirtyCells = new int[cells];
+            dirtyCount = 0;
+        }
+        int oldest = 64 - Long.numberOfLeadingZeros(now); // Log2 bucket of the longest possible residency
+        for (int cell = 0; cell < cells; cell++) {
+            int first = cell * framesPerCell;
+            int last = Math.min(numFrames, first + framesPerCell);
+            int occupied = 0;
+            int hot = 0;
+            long ageSum = 0;
+            for (int i = first; i < last; i++) {
+                if (pages[i] != -1) {
+                    occupied++;
+                    if (referenced[i]) {
+                        hot++;
+                    }
+                    ageSum += now - loadedAt[i];
+                }
+            }
+
+            int color;
+            if (occupied == 0) {
+                color = EMPTY_COLOR;
+            } else if (mode == Mode.REFERENCE_BITS) {
+                color = blend(COLD_COLOR, HOT_COLOR, hot * (LEVELS - 1) / occupied);
+            } else {
+                int age = 64 - Long.numberOfLeadingZeros(ageSum / occupied);
+                color = blend(YOUNG_COLOR, OLD_COLOR, oldest == 0 ? 0 : age * (LEVELS - 1) / oldest);
+            }
+            if (color != cellColors[cell]) {
+                cellColors[cell] = color;
+                if (!dirty[cell]) {
+                    dirty[cell] = true;
+                    dirtyCells[dirtyCount++] = cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mixes two opaque colors, moving from the first to the second in LEVELS - 1 steps.
+     */
+    private static int blend(int from, int to, int level) {
+        int r = ((from >> 16 & 0xFF) * (LEVELS - 1 - level) + (to >> 16 & 0xFF) * level) / (LEVELS - 1);
+        int g = ((from >> 8 & 0xFF) * (LEVELS - 1 - level) + (to >> 8 & 0xFF) * level) / (LEVELS - 1);
+        int b = ((from & 0xFF) * (LEVELS - 1 - level) + (to & 0xFF) * level) / (LEVELS - 1);
+        return 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    public synchronized int getFramesPerCell() {
+        return framesPerCell;
+    }
+}
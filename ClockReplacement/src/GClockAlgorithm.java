@@ -0,0 +1,91 @@
+/**
+ * Implements Generalized Clock (GCLOCK) page replacement.
+ * Each frame keeps a small reference counter instead of a single bit. Hits increment it,
+ * and on a fault the hand decrements counters until it finds one at zero.
+ */
+public class GClockAlgorithm extends AbstractReplacementPolicy {
+
+    /** Counter ceiling used by {@link #GClockAlgorithm(int)}. */
+    public static final int DEFAULT_MAX_COUNT = 3;
+
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private byte[] counters; // Reference counter per frame, 0..maxCount
+    private int maxCount;
+    private int clockHand;
+
+    /**
+     * Constructor for GClockAlgorithm with the default counter ceiling.
+     * @param numFrames The number of frames available in memory.
+     */
+    public GClockAlgorithm(int numFrames) {
+        this(numFrames, DEFAULT_MAX_COUNT);
+    }
+
+    /**
+     * Constructor for GClockAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     * @param maxCount The largest value a reference counter can reach (1 behaves like plain Clock).
+     */
+    public GClockAlgorithm(int numFrames, int maxCount) {
+        super(numFrames);
+        if (maxCount < 1 || maxCount > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Counter ceiling must be between 1 and " + Byte.MAX_VALUE + ".");
+        }
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.counters = new byte[numFrames];
+        this.maxCount = maxCount;
+        this.clockHand = 0;
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int foundIndex = pageIndex.get(pageNumber);
+        if (foundIndex != -1) {
+            if (counters[foundIndex] < maxCount) {
+                counters[foundIndex]++;
+            }
+            return recordHit(pageNumber, foundIndex);
+        }
+
+        recordFault(pageNumber);
+        while (counters[clockHand] > 0) {
+            // Counter still positive, age it and move on
+            counters[clockHand]--;
+            advanceClockHand();
+        }
+
+        int victim = clockHand;
+        if (pages[victim] != EMPTY) {
+            pageIndex.remove(evictFrame(victim));
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        if (pageNumber != EMPTY) {
+            pageIndex.put(pageNumber, victim);
+        }
+        counters[victim] = 1; // New page starts with one reference
+        advanceClockHand();
+        return outcome;
+    }
+
+    private void advanceClockHand() {
+        if (++clockHand == numFrames) {
+            clockHand = 0;
+        }
+    }
+
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return counters[frame];
+    }
+
+    @Override
+    public int getClockHand() {
+        return clockHand;
+    }
+
+    @Override
+    public String getName() {
+        return "GCLOCK";
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int keys to int values.
+ * Uses linear probing over primitive arrays so lookups never box or allocate.
+ * Used by the replacement engines to map a page number to the frame that holds it.
+ */
+public class IntIntHashMap {
+
+    /** Value returned by {@link #get(int)} and {@link #remove(int)} when the key is absent. */
+    public static final int NO_VALUE = -1;
+
+    private static final int FREE_KEY = Integer.MIN_VALUE; // Marks an unused slot
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // FREE_KEY itself cannot live in the table, so it gets a dedicated slot
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    /**
+     * Constructor for IntIntHashMap.
+     * @param expectedSize The number of entries the map should hold without resizing.
+     */
+    public IntIntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative.");
+        }
+        int capacity = tableSizeFor(expectedSize);
+        allocate(capacity);
+    }
+
+    /**
+     * Looks up the value stored for a key.
+     * @param key The key to look up.
+     * @return The mapped value, or {@link #NO_VALUE} if the key is absent.
+     */
+    public int get(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : NO_VALUE;
+        }
+        int slot = slotFor(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE_KEY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Checks whether a key is present.
+     * @param key The key to look for.
+     * @return true if the key is mapped, false otherwise.
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        int slot = slotFor(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return true;
+            }
+            if (k == FREE_KEY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous mapping.
+     * @param key The key to store.
+     * @param value The value to associate with the key.
+     * @return The previous value, or {@link #NO_VALUE} if the key was absent.
+     */
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+            if (!hasFreeKey) {
+                size++;
+            }
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+        int slot = slotFor(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if (k == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes the mapping for a key.
+     * Uses backward-shift deletion so no tombstones are left behind.
+     * @param key The key to remove.
+     * @return The removed value, or {@link #NO_VALUE} if the key was absent.
+     */
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return NO_VALUE;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+        int slot = slotFor(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                int previous = values[slot];
+                shiftKeys(slot);
+                size--;
+                return previous;
+            }
+            if (k == FREE_KEY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every mapping while keeping the allocated table.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Closes the gap left at a removed slot by moving later entries of the same probe run back.
+     * @param slot The slot that was just vacated.
+     */
+    private void shiftKeys(int slot) {
+        int gap = slot;
+        int current = (slot + 1) & mask;
+        while (true) {
+            int k = keys[current];
+            if (k == FREE_KEY) {
+                break;
+            }
+            int home = slotFor(k);
+            // Move the entry back only if its home slot is not between the gap and its position
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[current];
+                gap = current;
+            }
+            current = (current + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k != FREE_KEY) {
+                int slot = slotFor(k);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        mask = capacity - 1;
+        resizeAt = capacity >>> 1; // Keep the load factor at or below 0.5
+    }
+
+    private int slotFor(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential page numbers
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Computes a power-of-two table size that holds the given number of entries at half load.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+}
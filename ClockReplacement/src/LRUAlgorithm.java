@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+/**
+ * Implements Least Recently Used page replacement.
+ * Frames are threaded on an intrusive doubly linked list stored in int arrays,
+ * ordered from most to least recently used, so both hits and evictions are O(1).
+ */
+public class LRUAlgorithm extends AbstractReplacementPolicy {
+
+    private static final int NIL = -1;
+
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private int[] prev; // Frame used just more recently than this one
+    private int[] next; // Frame used just less recently than this one
+    private int head; // Most recently used frame
+    private int tail; // Least recently used frame
+    private int usedFrames; // Frames [0, usedFrames) are on the list
+
+    /**
+     * Constructor for LRUAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     */
+    public LRUAlgorithm(int numFrames) {
+        super(numFrames);
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.prev = new int[numFrames];
+        this.next = new int[numFrames];
+        Arrays.fill(prev, NIL);
+        Arrays.fill(next, NIL);
+        this.head = NIL;
+        this.tail = NIL;
+        this.usedFrames = 0;
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int foundIndex = pageIndex.get(pageNumber);
+        if (foundIndex != -1) {
+            if (foundIndex != head) {
+                unlink(foundIndex);
+                pushFront(foundIndex);
+            }
+            return recordHit(pageNumber, foundIndex);
+        }
+
+        recordFault(pageNumber);
+        int victim;
+        if (usedFrames < numFrames) {
+            victim = usedFrames++; // Fill empty frames before evicting anything
+        } else {
+            victim = tail;
+            unlink(victim);
+            if (pages[victim] != EMPTY) {
+                pageIndex.remove(evictFrame(victim));
+            }
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        if (pageNumber != EMPTY) {
+            pageIndex.put(pageNumber, victim);
+        }
+        pushFront(victim);
+        return outcome;
+    }
+
+    private void unlink(int frame) {
+        int p = prev[frame];
+        int n = next[frame];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void pushFront(int frame) {
+        prev[frame] = NIL;
+        next[frame] = head;
+        if (head != NIL) {
+            prev[head] = frame;
+        } else {
+            tail = frame;
+        }
+        head = frame;
+    }
+
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return 0; // Recency is kept in the list order, not in per-frame bits
+    }
+
+    @Override
+    public String getName() {
+        return "LRU";
+    }
+}
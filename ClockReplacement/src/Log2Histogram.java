@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * Counts non-negative values in power-of-two buckets: bucket 0 holds 0 and bucket k holds
+ * [2^(k-1), 2^k). Recording is a leading-zero count and an array increment, so it is cheap
+ * enough for a request path; percentiles are accurate to within a factor of two.
+ */
+public class Log2Histogram {
+
+    private final long[] counts = new long[65];
+    private long total;
+    private long sum;
+    private long max;
+
+    /**
+     * Records one value; negative values are counted as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[64 - Long.numberOfLeadingZeros(value)]++;
+        total++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0.0 : (double) sum / total;
+    }
+
+    /**
+     * Gets the number of values recorded in a bucket.
+     */
+    public long getBucketCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Gets the smallest value a bucket holds.
+     */
+    public static long bucketLow(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    /**
+     * Gets the largest value a bucket holds.
+     */
+    public static long bucketHigh(int bucket) {
+        return bucket == 0 ? 0 : bucket == 64 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Gets the number of buckets up to and including the highest one in use.
+     */
+    public int getBucketsUsed() {
+        return 64 - Long.numberOfLeadingZeros(max) + 1;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in, capped at the maximum seen.
+     * @param percentile A value from 0 to 100.
+     */
+    public long getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank && seen > 0) {
+                return Math.min(bucketHigh(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+/**
+ * Builds the LRU miss-ratio curve for every frame count in a single pass (Mattson stack distances).
+ * Each page remembers the time of its last access, and a Fenwick tree over those times counts
+ * how many distinct pages were touched since, which is the page's stack distance. An LRU cache
+ * with F frames hits exactly the references whose distance is at most F.
+ *
+ * An optional SHARDS mode (Waldspurger et al.) tracks only pages whose spatial hash falls under a
+ * threshold and scales the distances back up. Hits are normalized by the sampled references rather
+ * than the trace length, which corrects for hot pages landing in or out of the sample.
+ * With a sample limit the threshold is lowered as needed, so billion-reference traces are
+ * estimated in bounded memory.
+ */
+public class MissRatioCurve {
+
+    private static final long HASH_MODULUS = 1L << 24; // Range of the SHARDS spatial hash
+    private static final int MIN_TIME_CAPACITY = 1024;
+
+    private IntIntHashMap lastAccess; // Maps page number -> time of its last sampled access
+    private int[] pageAtTime; // Page accessed at each time slot, or -1 if superseded
+    private int[] tree; // Fenwick tree with a 1 at each time slot that is some page's last access
+    private int clock; // Next time slot to hand out
+
+    private double[] histogram = new double[64]; // Estimated references per stack distance
+    private long coldMisses; // Sampled first references, which miss at any size
+    private long sampledReferences;
+    private double sampledWeight; // Sum of 1/R over sampled references, an estimate of the trace length
+    private long totalReferences;
+
+    // SHARDS sampling state; a threshold equal to HASH_MODULUS samples everything
+    private long threshold;
+    private int maxSamples; // 0 for fixed-rate sampling
+    private long[] sampleHeap; // Max-heap of (hash << 32 | page) for the fixed-size mode
+    private int sampleHeapSize;
+
+    /**
+     * Constructor for an exact MissRatioCurve that tracks every page.
+     */
+    public MissRatioCurve() {
+        this(1.0, 0);
+    }
+
+    /**
+     * Constructor for a sampled MissRatioCurve.
+     * @param samplingRate Fraction of the page space to track, in (0, 1].
+     * @param maxSamples If positive, the most distinct pages to track; the rate is lowered to stay within it.
+     */
+    public MissRatioCurve(double samplingRate, int maxSamples) {
+        if (!(samplingRate > 0.0 && samplingRate <= 1.0)) {
+            throw new IllegalArgumentException("Sampling rate must be in (0, 1].");
+        }
+        if (maxSamples < 0) {
+            throw new IllegalArgumentException("Sample limit cannot be negative.");
+        }
+        this.threshold = Math.max(1, Math.round(samplingRate * HASH_MODULUS));
+        this.maxSamples = maxSamples;
+        int expected = maxSamples > 0 ? maxSamples : MIN_TIME_CAPACITY;
+        this.lastAccess = new IntIntHashMap(expected);
+        int timeCapacity = Math.max(MIN_TIME_CAPACITY, 2 * expected);
+        this.pageAtTime = new int[timeCapacity];
+        this.tree = new int[timeCapacity + 1];
+        if (maxSamples > 0) {
+            this.sampleHeap = new long[maxSamples + 1];
+        }
+    }
+
+    /**
+     * Records one reference.
+     * @param pageNumber The page number being requested.
+     */
+    public void access(int pageNumber) {
+        totalReferences++;
+        long hash = spatialHash(pageNumber);
+        if (hash >= threshold) {
+            return; // Not in the sample
+        }
+        sampledReferences++;
+        double scale = HASH_MODULUS / (double) threshold;
+        sampledWeight += scale;
+
+        int last = lastAccess.get(pageNumber);
+        if (last == IntIntHashMap.NO_VALUE) {
+            coldMisses++;
+            if (maxSamples > 0) {
+                heapPush((hash << 32) | (pageNumber & 0xFFFFFFFFL));
+            }
+        } else {
+            // Pages touched after the last access, plus the page itself, scaled up by the sampling rate
+            long distance = (long) countFrom(last + 1) + 1;
+            record(Math.round(distance * scale), scale);
+            clearSlot(last);
+        }
+        if (clock == pageAtTime.length) {
+            compactTimes();
+        }
+        int now = clock++;
+        pageAtTime[now] = pageNumber;
+        addToTree(now, 1);
+        lastAccess.put(pageNumber, now);
+
+        if (maxSamples > 0 && sampleHeapSize > maxSamples) {
+            lowerThreshold();
+        }
+    }
+
+    /**
+     * Records every reference of a trace.
+     * @param trace An iterator over the page numbers to request, in order.
+     */
+    public void accessAll(PrimitiveIterator.OfInt trace) {
+        while (trace.hasNext()) {
+            access(trace.nextInt());
+        }
+    }
+
+    /**
+     * Estimates the LRU hit ratio for one frame count.
+     * @param numFrames The number of frames.
+     * @return The fraction of references that hit.
+     */
+    public double getHitRatio(int numFrames) {
+        if (sampledWeight == 0) {
+            return 0.0;
+        }
+        double hits = 0;
+        int limit = Math.min(numFrames, histogram.length - 1);
+        for (int d = 1; d <= limit; d++) {
+            hits += histogram[d];
+        }
+        return hits / sampledWeight;
+    }
+
+    /**
+     * Computes the LRU hit ratio for every frame count from 1 to maxFrames in one cumulative pass.
+     * @param maxFrames The largest frame count of interest.
+     * @return An array where element F is the hit ratio with F frames (element 0 is 0).
+     */
+    public double[] getHitRatios(int maxFrames) {
+        double[] ratios = new double[maxFrames + 1];
+        if (sampledWeight == 0) {
+            return ratios;
+        }
+        double hits = 0;
+        for (int f = 1; f <= maxFrames; f++) {
+            if (f < histogram.length) {
+                hits += histogram[f];
+            }
+            ratios[f] = hits / sampledWeight;
+        }
+        return ratios;
+    }
+
+    /**
+     * Writes "frames,hit_ratio,miss_ratio" rows for frame counts 1 to maxFrames.
+     */
+    public void writeCsv(PrintStream out, int maxFrames, int step) {
+        double[] ratios = getHitRatios(maxFrames);
+        out.println("frames,hit_ratio,miss_ratio");
+        for (int f = step; f <= maxFrames; f += step) {
+            out.printf("%d,%.6f,%.6f%n", f, ratios[f], 1.0 - ratios[f]);
+        }
+    }
+
+    public long getTotalReferences() {
+        return totalReferences;
+    }
+
+    public long getSampledReferences() {
+        return sampledReferences;
+    }
+
+    /**
+     * Gets the sampling rate in effect, which may have been lowered to respect the sample limit.
+     */
+    public double getSamplingRate() {
+        return threshold / (double) HASH_MODULUS;
+    }
+
+    // --- Histogram ---
+
+    /**
+     * Adds a reference to the histogram. Each sampled reference stands for 1/R references.
+     */
+    private void record(long distance, double weight) {
+        if (distance >= histogram.length) {
+            long size = Math.max(distance + 1, (long) histogram.length * 2);
+            if (size > Integer.MAX_VALUE - 8) {
+                size = Integer.MAX_VALUE - 8;
+                distance = Math.min(distance, size - 1);
+            }
+            histogram = Arrays.copyOf(histogram, (int) size);
+        }
+        histogram[(int) distance] += weight;
+    }
+
+    // --- Time slots and Fenwick tree ---
+
+    /**
+     * Counts the live last-access times in [from, clock).
+     */
+    private int countFrom(int from) {
+        return prefixSum(clock) - prefixSum(from);
+    }
+
+    private void clearSlot(int time) {
+        pageAtTime[time] = -1;
+        addToTree(time, -1);
+    }
+
+    private void addToTree(int index, int delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sums the tree over time slots [0, end).
+     */
+    private int prefixSum(int end) {
+        int sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Renumbers the live last-access times to 0..n-1, keeping their order, once the slots run out.
+     * Grows the slot array when more than half of it is live, so the amortized cost stays O(log n).
+     */
+    private void compactTimes() {
+        int live = lastAccess.size();
+        int capacity = pageAtTime.length;
+        if (live * 2 > capacity) {
+            capacity *= 2;
+        }
+        int[] compacted = new int[capacity];
+        int next = 0;
+        for (int t = 0; t < clock; t++) {
+            int page = pageAtTime[t];
+            if (page != -1 && lastAccess.get(page) == t) {
+                compacted[next] = page;
+                lastAccess.put(page, next);
+                next++;
+            }
+        }
+        pageAtTime = compacted;
+        tree = new int[capacity + 1];
+        // Linear-time Fenwick construction with a 1 in each of the first `next` slots
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= next) {
+                tree[i] += 1;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+        clock = next;
+    }
+
+    // --- SHARDS sampling ---
+
+    private static long spatialHash(int pageNumber) {
+        long h = pageNumber * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return h & (HASH_MODULUS - 1);
+    }
+
+    /**
+     * Drops the pages with the largest hashes until the sample fits, lowering the threshold to match.
+     */
+    private void lowerThreshold() {
+        while (sampleHeapSize > maxSamples) {
+            long top = sampleHeap[0];
+            long hash = top >>> 32;
+            // Remove every tracked page sharing the top hash, then exclude that hash value
+            while (sampleHeapSize > 0 && (sampleHeap[0] >>> 32) == hash) {
+                int page = (int) heapPop();
+                int last = lastAccess.remove(page);
+                if (last != IntIntHashMap.NO_VALUE) {
+                    clearSlot(last);
+                }
+            }
+            threshold = hash; // Later references are weighted by the new, lower rate
+        }
+    }
+
+    private void heapPush(long value) {
+        int index = sampleHeapSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (sampleHeap[parent] >= value) {
+                break;
+            }
+            sampleHeap[index] = sampleHeap[parent];
+            index = parent;
+        }
+        sampleHeap[index] = value;
+    }
+
+    private long heapPop() {
+        long top = sampleHeap[0];
+        long last = sampleHeap[--sampleHeapSize];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= sampleHeapSize) {
+                break;
+            }
+            if (child + 1 < sampleHeapSize && sampleHeap[child + 1] > sampleHeap[child]) {
+                child++;
+            }
+            if (sampleHeap[child] <= last) {
+                break;
+            }
+            sampleHeap[index] = sampleHeap[child];
+            index = child;
+        }
+        sampleHeap[index] = last;
+        return top;
+    }
+
+    /**
+     * Command-line entry point that prints the miss-ratio curve of a trace as CSV.
+     * Usage: java MissRatioCurve &lt;maxFrames&gt; &lt;traceFile | -&gt; [samplingRate [maxSamples]]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: java MissRatioCurve <maxFrames> <traceFile | -> [samplingRate [maxSamples]]");
+            System.exit(2);
+        }
+        try (PageTrace trace = PageTrace.open(args[1])) {
+            int maxFrames = Integer.parseInt(args[0]);
+            double rate = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+            int maxSamples = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+            MissRatioCurve curve = new MissRatioCurve(rate, maxSamples);
+            curve.accessAll(trace);
+            curve.writeCsv(System.out, maxFrames, 1);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to build the curve: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,542 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Simulates many processes sharing one pool of frames, each reference tagged with a process id.
+ * With global replacement a single clock sweeps every frame, so a faulting process may take a
+ * frame from any other. With local replacement each process runs its own clock over the frames it
+ * holds, and an allocation policy sets how many frames each process may hold:
+ * an equal share, a share proportional to its size (highest page number referenced), or a
+ * quota adjusted by page-fault frequency.
+ *
+ * Per-process state is kept in parallel primitive arrays indexed by a dense process number,
+ * plus a page map created on the first fault, so thousands of processes stay cheap. Under local
+ * replacement the processes also sit in a heap that keeps the one most over its quota on top,
+ * so finding a process to take a frame from costs O(1) rather than a scan of every process.
+ * Usage: java MultiProcessSimulator &lt;numFrames&gt; &lt;traceFile | -&gt; [global | equal | proportional | pff]
+ * The trace holds pairs of numbers: a process id followed by a page number.
+ */
+public class MultiProcessSimulator {
+
+    /**
+     * How frames are shared between processes.
+     */
+    public enum Allocation {
+        /** One clock over every frame; no per-process limit. */
+        GLOBAL,
+        /** Local clocks, each process limited to an equal share of the frames. */
+        EQUAL,
+        /** Local clocks, each process limited to a share proportional to its size. */
+        PROPORTIONAL,
+        /** Local clocks, each process's limit raised or lowered by its page-fault frequency. */
+        PFF
+    }
+
+    /** PFF grows a process's quota when it faults again within this many of its own references. */
+    public static final int DEFAULT_PFF_GROW_BELOW = 10;
+    /** PFF shrinks a process's quota when it goes this many of its own references without a fault. */
+    public static final int DEFAULT_PFF_SHRINK_ABOVE = 100;
+
+    private static final int EMPTY = -1; // Page number stored in an empty frame
+    private static final int NONE = -1;
+
+    private final int numFrames;
+    private final Allocation allocation;
+    private final int pffGrowBelow;
+    private final int pffShrinkAbove;
+
+    // Frame table
+    private int[] frameOwner; // Dense process number holding each frame
+    private int[] framePage; // Page number held by each frame, -1 if empty
+    private long[] referenceBits; // One bit per frame, 64 frames per word
+    private int[] ringNext; // Circular list of the frames each process holds, for local clocks
+    private int[] ringPrev;
+    private int[] freeFrames; // Stack of empty frames
+    private int freeCount;
+    private int globalHand;
+
+    // Per-process state, indexed by dense process number
+    private IntIntHashMap processIndex; // Maps process id -> dense process number
+    private int processCount;
+    private int[] pids;
+    private IntIntHashMap[] pageMaps; // Page number -> frame, null until the first fault
+    private long[] hits;
+    private long[] faults;
+    private long[] references;
+    private long[] lastFaultAt; // Value of references[] at the process's last fault
+    private int[] resident;
+    private int[] hands; // Local clock hand, -1 while the process holds no frames
+    private int[] sizes; // Highest page number referenced plus one
+    private int[] quotas; // PFF quota
+    private long totalSize;
+    private int[] donorHeap; // Binary max-heap of process numbers, ordered by outranks(); null under GLOBAL
+    private int[] heapPos; // Position of each process in donorHeap
+
+    private long totalHits;
+    private long totalFaults;
+    private int lastVictimPid = NONE;
+    private int lastVictimPage = EMPTY;
+
+    /**
+     * Constructor for MultiProcessSimulator with the default PFF thresholds.
+     * @param numFrames The number of frames in the shared pool.
+     * @param allocation How frames are shared between processes.
+     */
+    public MultiProcessSimulator(int numFrames, Allocation allocation) {
+        this(numFrames, allocation, DEFAULT_PFF_GROW_BELOW, DEFAULT_PFF_SHRINK_ABOVE);
+    }
+
+    /**
+     * Constructor for MultiProcessSimulator.
+     * @param numFrames The number of frames in the shared pool.
+     * @param allocation How frames are shared between processes.
+     * @param pffGrowBelow Inter-fault distance, in the process's own references, below which PFF adds a frame.
+     * @param pffShrinkAbove Inter-fault distance above which PFF takes a frame away.
+     */
+    public MultiProcessSimulator(int numFrames, Allocation allocation, int pffGrowBelow, int pffShrinkAbove) {
+        if (numFrames <= 0) {
+            throw new IllegalArgumentException("Number of frames must be positive.");
+        }
+        if (pffGrowBelow < 0 || pffShrinkAbove < pffGrowBelow) {
+            throw new IllegalArgumentException("PFF thresholds must satisfy 0 <= grow <= shrink.");
+        }
+        this.numFrames = numFrames;
+        this.allocation = allocation;
+        this.pffGrowBelow = pffGrowBelow;
+        this.pffShrinkAbove = pffShrinkAbove;
+
+        this.frameOwner = new int[numFrames];
+        this.framePage = new int[numFrames];
+        Arrays.fill(framePage, EMPTY); // Initialize with empty frames
+        this.referenceBits = new long[(numFrames + 63) >>> 6];
+        this.ringNext = new int[numFrames];
+        this.ringPrev = new int[numFrames];
+        this.freeFrames = new int[numFrames];
+        for (int frame = numFrames - 1; frame >= 0; frame--) {
+            freeFrames[freeCount++] = frame; // Frame 0 is handed out first
+        }
+
+        this.processIndex = new IntIntHashMap(64);
+        allocateProcesses(64);
+    }
+
+    /**
+     * Simulates a request by one process for one of its pages.
+     * @param pid The id of the requesting process.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return {@link ReplacementPolicy#HIT}, {@link ReplacementPolicy#FAULT_EMPTY} or {@link ReplacementPolicy#FAULT_REPLACED}.
+     */
+    public int access(int pid, int pageNumber) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number cannot be negative.");
+        }
+        int p = processFor(pid);
+        references[p]++;
+        if (pageNumber >= sizes[p]) {
+            totalSize += pageNumber + 1L - sizes[p];
+            sizes[p] = pageNumber + 1;
+            updateDonor(p);
+        }
+
+        IntIntHashMap pageMap = pageMaps[p];
+        if (pageMap != null) {
+            int frame = pageMap.get(pageNumber);
+            if (frame != IntIntHashMap.NO_VALUE) {
+                referenceBits[frame >>> 6] |= 1L << frame;
+                hits[p]++;
+                totalHits++;
+                lastVictimPid = NONE;
+                lastVictimPage = EMPTY;
+                return ReplacementPolicy.HIT;
+            }
+        } else {
+            pageMaps[p] = new IntIntHashMap(4);
+        }
+
+        faults[p]++;
+        totalFaults++;
+        if (allocation == Allocation.PFF) {
+            adjustQuota(p);
+        }
+        lastFaultAt[p] = references[p];
+
+        int frame = chooseFrame(p);
+        lastVictimPid = NONE;
+        lastVictimPage = EMPTY;
+        if (framePage[frame] != EMPTY) {
+            evict(frame);
+        }
+        install(p, pageNumber, frame);
+        return lastVictimPage == EMPTY ? ReplacementPolicy.FAULT_EMPTY : ReplacementPolicy.FAULT_REPLACED;
+    }
+
+    /**
+     * Picks the frame a faulting process will load its page into.
+     */
+    private int chooseFrame(int p) {
+        if (allocation == Allocation.GLOBAL) {
+            return freeCount > 0 ? freeFrames[--freeCount] : globalSweep();
+        }
+        if (resident[p] < quotaOf(p)) {
+            // Entitled to another frame: use a free one, or take one from a process over its quota
+            if (freeCount > 0) {
+                return freeFrames[--freeCount];
+            }
+            int donor = findDonor(p);
+            if (donor != NONE) {
+                return localSweep(donor);
+            }
+        }
+        if (resident[p] > 0) {
+            return localSweep(p);
+        }
+        // Holds nothing and nobody can give a frame up: fall back to the global clock
+        return freeCount > 0 ? freeFrames[--freeCount] : globalSweep();
+    }
+
+    /**
+     * Gets the number of frames a process may hold under local replacement.
+     */
+    private int quotaOf(int p) {
+        switch (allocation) {
+            case EQUAL:
+                return Math.max(1, numFrames / processCount + (p < numFrames % processCount ? 1 : 0));
+            case PROPORTIONAL:
+                return (int) Math.max(1, numFrames * (long) sizes[p] / totalSize);
+            case PFF:
+                return quotas[p];
+            default:
+                return numFrames;
+        }
+    }
+
+    /**
+     * Page-fault frequency: a process faulting often gets a larger quota, one faulting rarely a smaller one.
+     */
+    private void adjustQuota(int p) {
+        long sinceLastFault = references[p] - lastFaultAt[p];
+        if (sinceLastFault < pffGrowBelow) {
+            if (quotas[p] < numFrames && resident[p] >= quotas[p]) { // Only grow a quota the process has filled
+                quotas[p]++;
+            }
+        } else if (sinceLastFault > pffShrinkAbove && quotas[p] > 1) {
+            quotas[p]--;
+        } else {
+            return;
+        }
+        updateDonor(p);
+    }
+
+    /**
+     * Finds the process furthest over its quota. The requesting process is below its own quota,
+     * so it is never the one found.
+     * @return The dense process number, or -1 if no process is over its quota.
+     */
+    private int findDonor(int p) {
+        int q = donorHeap[0];
+        return q != p && resident[q] > quotaOf(q) ? q : NONE;
+    }
+
+    /**
+     * Tells whether process a belongs nearer the top of the donor heap than process b.
+     * The order only depends on the two processes' own state, so a change to the process count or
+     * total size, which moves every quota at once, leaves the heap valid, yet the top process is over
+     * its quota whenever any process is.
+     */
+    private boolean outranks(int a, int b) {
+        switch (allocation) {
+            case EQUAL:
+                // Quotas are equal except one frame more for the lowest process numbers, so the largest
+                // resident set is over if any is, and among equal sets the highest number has the least quota
+                return resident[a] != resident[b] ? resident[a] > resident[b] : a > b;
+            case PROPORTIONAL:
+                // Over quota means holding 2 or more frames and more frames per page than the pool has per page in total
+                if ((resident[a] > 1) != (resident[b] > 1)) {
+                    return resident[a] > 1;
+                }
+                return resident[a] * (long) sizes[b] > resident[b] * (long) sizes[a];
+            default:
+                return resident[a] - quotas[a] > resident[b] - quotas[b];
+        }
+    }
+
+    /**
+     * Restores a process's place in the donor heap after its resident count, size or quota changed.
+     */
+    private void updateDonor(int p) {
+        if (donorHeap == null) {
+            return;
+        }
+        int i = heapPos[p];
+        while (i > 0 && outranks(p, donorHeap[(i - 1) >>> 1])) {
+            moveInHeap(donorHeap[(i - 1) >>> 1], i);
+            i = (i - 1) >>> 1;
+        }
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= processCount) {
+                break;
+            }
+            if (child + 1 < processCount && outranks(donorHeap[child + 1], donorHeap[child])) {
+                child++;
+            }
+            if (!outranks(donorHeap[child], p)) {
+                break;
+            }
+            moveInHeap(donorHeap[child], i);
+            i = child;
+        }
+        moveInHeap(p, i);
+    }
+
+    private void moveInHeap(int p, int i) {
+        donorHeap[i] = p;
+        heapPos[p] = i;
+    }
+
+    /**
+     * Runs the clock over every frame in the pool.
+     * @return The victim frame.
+     */
+    private int globalSweep() {
+        while ((referenceBits[globalHand >>> 6] & (1L << globalHand)) != 0) {
+            referenceBits[globalHand >>> 6] &= ~(1L << globalHand); // Second chance
+            globalHand = globalHand + 1 == numFrames ? 0 : globalHand + 1;
+        }
+        int victim = globalHand;
+        globalHand = globalHand + 1 == numFrames ? 0 : globalHand + 1;
+        return victim;
+    }
+
+    /**
+     * Runs one process's clock over the frames it holds.
+     * @return The victim frame.
+     */
+    private int localSweep(int p) {
+        int hand = hands[p];
+        while ((referenceBits[hand >>> 6] & (1L << hand)) != 0) {
+            referenceBits[hand >>> 6] &= ~(1L << hand); // Second chance
+            hand = ringNext[hand];
+        }
+        hands[p] = ringNext[hand];
+        return hand;
+    }
+
+    /**
+     * Takes a page out of its frame and out of its owner's page map and clock.
+     */
+    private void evict(int frame) {
+        int owner = frameOwner[frame];
+        lastVictimPid = pids[owner];
+        lastVictimPage = framePage[frame];
+        pageMaps[owner].remove(framePage[frame]);
+        framePage[frame] = EMPTY;
+        referenceBits[frame >>> 6] &= ~(1L << frame);
+        resident[owner]--;
+        updateDonor(owner);
+        if (resident[owner] == 0) {
+            hands[owner] = NONE;
+        } else {
+            ringNext[ringPrev[frame]] = ringNext[frame];
+            ringPrev[ringNext[frame]] = ringPrev[frame];
+            if (hands[owner] == frame) {
+                hands[owner] = ringNext[frame];
+            }
+        }
+    }
+
+    /**
+     * Loads a page into a frame and adds the frame to its process's clock, just behind the hand.
+     */
+    private void install(int p, int pageNumber, int frame) {
+        frameOwner[frame] = p;
+        framePage[frame] = pageNumber;
+        pageMaps[p].put(pageNumber, frame);
+        referenceBits[frame >>> 6] |= 1L << frame; // New page gets reference bit 1
+        resident[p]++;
+        updateDonor(p);
+        int hand = hands[p];
+        if (hand == NONE) {
+            ringNext[frame] = frame;
+            ringPrev[frame] = frame;
+            hands[p] = frame;
+        } else {
+            int before = ringPrev[hand];
+            ringNext[before] = frame;
+            ringPrev[frame] = before;
+            ringNext[frame] = hand;
+            ringPrev[hand] = frame;
+        }
+    }
+
+    /**
+     * Looks up a process's dense number, registering the process on first sight.
+     */
+    private int processFor(int pid) {
+        int p = processIndex.get(pid);
+        if (p != IntIntHashMap.NO_VALUE) {
+            return p;
+        }
+        if (processCount == pids.length) {
+            allocateProcesses(processCount * 2);
+        }
+        p = processCount++;
+        processIndex.put(pid, p);
+        pids[p] = pid;
+        hands[p] = NONE;
+        quotas[p] = 1;
+        if (donorHeap != null) {
+            moveInHeap(p, p); // Appended at the bottom, then moved up to its place
+            updateDonor(p);
+        }
+        return p;
+    }
+
+    private void allocateProcesses(int capacity) {
+        if (pids == null) {
+            pids = new int[capacity];
+            pageMaps = new IntIntHashMap[capacity];
+            hits = new long[capacity];
+            faults = new long[capacity];
+            references = new long[capacity];
+            lastFaultAt = new long[capacity];
+            resident = new int[capacity];
+            hands = new int[capacity];
+            sizes = new int[capacity];
+            quotas = new int[capacity];
+            if (allocation != Allocation.GLOBAL) {
+                donorHeap = new int[capacity];
+                heapPos = new int[capacity];
+            }
+            return;
+        }
+        pids = Arrays.copyOf(pids, capacity);
+        pageMaps = Arrays.copyOf(pageMaps, capacity);
+        hits = Arrays.copyOf(hits, capacity);
+        faults = Arrays.copyOf(faults, capacity);
+        references = Arrays.copyOf(references, capacity);
+        lastFaultAt = Arrays.copyOf(lastFaultAt, capacity);
+        resident = Arrays.copyOf(resident, capacity);
+        hands = Arrays.copyOf(hands, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        quotas = Arrays.copyOf(quotas, capacity);
+        if (donorHeap != null) {
+            donorHeap = Arrays.copyOf(donorHeap, capacity);
+            heapPos = Arrays.copyOf(heapPos, capacity);
+        }
+    }
+
+    // --- Stats ---
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public Allocation getAllocation() {
+        return allocation;
+    }
+
+    public int getProcessCount() {
+        return processCount;
+    }
+
+    /**
+     * Gets the id of the process at a dense position, in order of first reference.
+     */
+    public int getPidAt(int index) {
+        return pids[index];
+    }
+
+    public long getPageHits() {
+        return totalHits;
+    }
+
+    public long getPageFaults() {
+        return totalFaults;
+    }
+
+    public long getPageHits(int pid) {
+        int p = processIndex.get(pid);
+        return p == IntIntHashMap.NO_VALUE ? 0 : hits[p];
+    }
+
+    public long getPageFaults(int pid) {
+        int p = processIndex.get(pid);
+        return p == IntIntHashMap.NO_VALUE ? 0 : faults[p];
+    }
+
+    /**
+     * Gets the fraction of a process's requests that faulted.
+     */
+    public double getFaultRate(int pid) {
+        int p = processIndex.get(pid);
+        if (p == IntIntHashMap.NO_VALUE || references[p] == 0) {
+            return 0.0;
+        }
+        return (double) faults[p] / references[p];
+    }
+
+    public int getResidentFrames(int pid) {
+        int p = processIndex.get(pid);
+        return p == IntIntHashMap.NO_VALUE ? 0 : resident[p];
+    }
+
+    /**
+     * Gets the number of frames a process may currently hold, or the pool size under global replacement.
+     */
+    public int getAllocatedFrames(int pid) {
+        int p = processIndex.get(pid);
+        return p == IntIntHashMap.NO_VALUE ? 0 : quotaOf(p);
+    }
+
+    /**
+     * Gets the process whose page the last request evicted, or -1 if nothing was evicted.
+     */
+    public int getLastVictimPid() {
+        return lastVictimPid;
+    }
+
+    public int getLastVictimPage() {
+        return lastVictimPage;
+    }
+
+    /**
+     * Writes one CSV row per process, in order of first reference.
+     */
+    public void writeCsv(PrintStream out) {
+        out.println("pid,requests,faults,fault_rate,resident_frames,allocated_frames");
+        for (int p = 0; p < processCount; p++) {
+            double faultRate = references[p] == 0 ? 0.0 : (double) faults[p] / references[p];
+            out.printf("%d,%d,%d,%.6f,%d,%d%n", pids[p], references[p], faults[p], faultRate, resident[p], quotaOf(p));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java MultiProcessSimulator <numFrames> <traceFile | -> [global | equal | proportional | pff]");
+            System.exit(2);
+        }
+        try {
+            int numFrames = Integer.parseInt(args[0]);
+            Allocation allocation = args.length > 2 ? Allocation.valueOf(args[2].toUpperCase()) : Allocation.GLOBAL;
+            MultiProcessSimulator simulator = new MultiProcessSimulator(numFrames, allocation);
+            try (PageTrace trace = PageTrace.open(args[1])) {
+                while (trace.hasNext()) {
+                    int pid = trace.nextInt();
+                    if (!trace.hasNext()) {
+                        throw new IllegalArgumentException("Trace ends with a process id but no page number.");
+                    }
+                    simulator.access(pid, trace.nextInt());
+                }
+            }
+            long requests = simulator.getPageHits() + simulator.getPageFaults();
+            System.err.printf("%s replacement, %d frames, %d processes, %d requests, %d faults (%.4f)%n",
+                    allocation, numFrames, simulator.getProcessCount(), requests, simulator.getPageFaults(),
+                    requests == 0 ? 0.0 : (double) simulator.getPageFaults() / requests);
+            simulator.writeCsv(System.out);
+        } catch (Exception e) {
+            System.err.println("Simulation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Implements Belady's optimal (OPT) page replacement: on a fault, evict the page whose
+ * next use lies furthest in the future. The next use of every reference is computed in
+ * one backward pass over the trace, and resident frames sit in an indexed max-heap keyed
+ * by next use, so a whole run costs O(n log frames).
+ * Because OPT needs the future, it is driven from a known trace rather than from live requests.
+ */
+public class OPTAlgorithm extends AbstractReplacementPolicy {
+
+    /** Next-use position of a page that is never referenced again. */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    /** Number of references processed per chunk by {@link #replayFile(int, String, int)}. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+    /** Largest chunk whose next-use buffer of 8 bytes per reference still fits in one ByteBuffer. */
+    public static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE / Long.BYTES;
+
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private long[] nextUseOf; // Next-use position of the page in each frame
+    private int[] heap; // Frames ordered as a max-heap on nextUseOf
+    private int[] heapPosition; // Position of each frame in heap
+    private int heapSize; // Frames [0, heapSize) are filled
+
+    // In-memory mode only: the trace and its precomputed next uses
+    private int[] trace;
+    private int[] nextUse;
+    private int position;
+
+    /**
+     * Constructor for an OPTAlgorithm fed through {@link #access(int, long)}.
+     * @param numFrames The number of frames available in memory.
+     */
+    public OPTAlgorithm(int numFrames) {
+        super(numFrames);
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.nextUseOf = new long[numFrames];
+        this.heap = new int[numFrames];
+        this.heapPosition = new int[numFrames];
+        this.heapSize = 0;
+    }
+
+    /**
+     * Constructor for an OPTAlgorithm that replays an in-memory trace.
+     * Requests made through {@link #access(int)} must follow the trace in order.
+     * @param numFrames The number of frames available in memory.
+     * @param trace The complete reference string.
+     */
+    public OPTAlgorithm(int numFrames, int[] trace) {
+        this(numFrames, trace, computeNextUse(trace));
+    }
+
+    /**
+     * Constructor for an OPTAlgorithm that replays an in-memory trace whose next uses were already
+     * computed, so several engines can share one read-only copy of both arrays.
+     * @param numFrames The number of frames available in memory.
+     * @param trace The complete reference string.
+     * @param nextUse The result of {@link #computeNextUse(int[])} for the trace.
+     */
+    public OPTAlgorithm(int numFrames, int[] trace, int[] nextUse) {
+        this(numFrames);
+        if (nextUse.length != trace.length) {
+            throw new IllegalArgumentException("Next-use array does not match the trace.");
+        }
+        this.trace = trace;
+        this.nextUse = nextUse;
+        this.position = 0;
+    }
+
+    /**
+     * Computes, for every reference, the position of the next reference to the same page.
+     * @param trace The reference string.
+     * @return The next-use position of each reference, or Integer.MAX_VALUE if there is none.
+     */
+    public static int[] computeNextUse(int[] trace) {
+        int[] result = new int[trace.length];
+        IntIntHashMap lastSeen = new IntIntHashMap(1024);
+        for (int i = trace.length - 1; i >= 0; i--) {
+            int seen = lastSeen.put(trace[i], i);
+            result[i] = seen == IntIntHashMap.NO_VALUE ? Integer.MAX_VALUE : seen;
+        }
+        return result;
+    }
+
+    /**
+     * Requests the next page of the in-memory trace.
+     * @param pageNumber The page number being requested; must match the trace.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    @Override
+    public int access(int pageNumber) {
+        if (trace == null) {
+            throw new IllegalStateException("OPT needs each request's next use; use access(page, nextUse).");
+        }
+        if (position >= trace.length || trace[position] != pageNumber) {
+            throw new IllegalStateException("OPT requests must follow the trace it was built from.");
+        }
+        int next = nextUse[position++];
+        return access(pageNumber, next == Integer.MAX_VALUE ? NEVER : next);
+    }
+
+    /**
+     * Requests a page whose next use is already known.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @param nextUsePosition The trace position of the next request for the same page, or {@link #NEVER}.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    public int access(int pageNumber, long nextUsePosition) {
+        checkPageNumber(pageNumber);
+        int foundIndex = pageIndex.get(pageNumber);
+        if (foundIndex != -1) {
+            updateKey(foundIndex, nextUsePosition);
+            return recordHit(pageNumber, foundIndex);
+        }
+
+        recordFault(pageNumber);
+        int victim;
+        if (heapSize < numFrames) {
+            victim = heapSize; // Fill empty frames first
+            heap[heapSize] = victim;
+            heapPosition[victim] = heapSize;
+            heapSize++;
+            nextUseOf[victim] = nextUsePosition;
+            siftUp(heapPosition[victim]);
+        } else {
+            victim = heap[0]; // Resident page used furthest in the future
+            if (pages[victim] != EMPTY) {
+                pageIndex.remove(evictFrame(victim));
+            }
+            updateKey(victim, nextUsePosition);
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        if (pageNumber != EMPTY) {
+            pageIndex.put(pageNumber, victim);
+        }
+        return outcome;
+    }
+
+    /**
+     * Replays a text trace file of any length through OPT in bounded memory.
+     * The trace is copied to a temporary binary file, next uses are computed chunk by chunk
+     * from the end, and the replay then streams both files forward.
+     * Memory use is two chunks plus one map entry per distinct page.
+     * @param numFrames The number of frames available in memory.
+     * @param path The path of the text trace file.
+     * @param chunkSize The number of references held in memory at a time, at most {@link #MAX_CHUNK_SIZE}.
+     * @return The engine after the replay, holding the final statistics.
+     */
+    public static OPTAlgorithm replayFile(int numFrames, String path, int chunkSize) throws IOException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be from 1 to " + MAX_CHUNK_SIZE + ".");
+        }
+        File pagesFile = File.createTempFile("opt-pages", ".bin");
+        File nextUseFile = File.createTempFile("opt-next", ".bin");
+        try {
+            long length = copyToBinary(path, pagesFile);
+            OPTAlgorithm algorithm = new OPTAlgorithm(numFrames);
+            try (FileChannel pageChannel = new RandomAccessFile(pagesFile, "r").getChannel();
+                 FileChannel nextChannel = new RandomAccessFile(nextUseFile, "rw").getChannel()) {
+                int[] pageChunk = new int[chunkSize];
+                long[] nextChunk = new long[chunkSize];
+                ByteBuffer pageBytes = ByteBuffer.allocateDirect(chunkSize * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                ByteBuffer nextBytes = ByteBuffer.allocateDirect(chunkSize * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+                // Backward pass: next uses, carrying the last-seen positions across chunks.
+                // Positions can pass the int range, so the map gives each page a slot in lastSeen.
+                IntIntHashMap seenSlot = new IntIntHashMap(1024);
+                long[] lastSeen = new long[1024];
+                for (long end = length; end > 0; ) {
+                    long start = Math.max(0, end - chunkSize);
+                    int count = (int) (end - start);
+                    readInts(pageChannel, pageBytes, start, pageChunk, count);
+                    for (int i = count - 1; i >= 0; i--) {
+                        int slot = seenSlot.get(pageChunk[i]);
+                        if (slot == IntIntHashMap.NO_VALUE) {
+                            slot = seenSlot.size();
+                            seenSlot.put(pageChunk[i], slot);
+                            if (slot == lastSeen.length) {
+                                lastSeen = Arrays.copyOf(lastSeen, slot * 2);
+                            }
+                            nextChunk[i] = NEVER;
+                        } else {
+                            nextChunk[i] = lastSeen[slot];
+                        }
+                        lastSeen[slot] = start + i;
+                    }
+                    writeLongs(nextChannel, nextBytes, start, nextChunk, count);
+                    end = start;
+                }
+                seenSlot = null; // Let the map go before the forward pass
+                lastSeen = null;
+
+                // Forward pass: the actual replay
+                for (long start = 0; start < length; start += chunkSize) {
+                    int count = (int) Math.min(chunkSize, length - start);
+                    readInts(pageChannel, pageBytes, start, pageChunk, count);
+                    readLongs(nextChannel, nextBytes, start, nextChunk, count);
+                    for (int i = 0; i < count; i++) {
+                        algorithm.access(pageChunk[i], nextChunk[i]);
+                    }
+                }
+            }
+            return algorithm;
+        } finally {
+            pagesFile.delete();
+            nextUseFile.delete();
+        }
+    }
+
+    /**
+     * Converts a text or binary trace into little-endian ints.
+     * @return The number of references written.
+     */
+    private static long copyToBinary(String path, File dest) throws IOException {
+        long count = 0;
+        try (PageTrace reader = PageTrace.open(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dest), 1 << 16))) {
+            while (reader.hasNext()) {
+                out.writeInt(Integer.reverseBytes(reader.nextInt()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void readInts(FileChannel channel, ByteBuffer bytes, long index, int[] dest, int count) throws IOException {
+        fill(channel, bytes, index * Integer.BYTES, count * Integer.BYTES);
+        bytes.asIntBuffer().get(dest, 0, count);
+    }
+
+    private static void readLongs(FileChannel channel, ByteBuffer bytes, long index, long[] dest, int count) throws IOException {
+        fill(channel, bytes, index * Long.BYTES, count * Long.BYTES);
+        bytes.asLongBuffer().get(dest, 0, count);
+    }
+
+    private static void writeLongs(FileChannel channel, ByteBuffer bytes, long index, long[] src, int count) throws IOException {
+        bytes.clear();
+        bytes.asLongBuffer().put(src, 0, count);
+        bytes.limit(count * Long.BYTES);
+        long offset = index * Long.BYTES;
+        while (bytes.hasRemaining()) {
+            offset += channel.write(bytes, offset);
+        }
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer bytes, long offset, int length) throws IOException {
+        bytes.clear();
+        bytes.limit(length);
+        while (bytes.hasRemaining()) {
+            int read = channel.read(bytes, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of temporary trace file.");
+            }
+            offset += read;
+        }
+        bytes.flip();
+    }
+
+    // --- Indexed max-heap on next use ---
+
+    private void updateKey(int frame, long key) {
+        long old = nextUseOf[frame];
+        nextUseOf[frame] = key;
+        if (key > old) {
+            siftUp(heapPosition[frame]);
+        } else if (key < old) {
+            siftDown(heapPosition[frame]);
+        }
+    }
+
+    private void siftUp(int index) {
+        int frame = heap[index];
+        long key = nextUseOf[frame];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentFrame = heap[parent];
+            if (nextUseOf[parentFrame] >= key) {
+                break;
+            }
+            heap[index] = parentFrame;
+            heapPosition[parentFrame] = index;
+            index = parent;
+        }
+        heap[index] = frame;
+        heapPosition[frame] = index;
+    }
+
+    private void siftDown(int index) {
+        int frame = heap[index];
+        long key = nextUseOf[frame];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && nextUseOf[heap[child + 1]] > nextUseOf[heap[child]]) {
+                child++;
+            }
+            int childFrame = heap[child];
+            if (nextUseOf[childFrame] <= key) {
+                break;
+            }
+            heap[index] = childFrame;
+            heapPosition[childFrame] = index;
+            index = child;
+        }
+        heap[index] = frame;
+        heapPosition[frame] = index;
+    }
+
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return 0; // OPT keeps next-use positions rather than reference bits
+    }
+
+    /**
+     * Gets the trace position at which the page in a frame is next used.
+     * @param frame The frame index.
+     * @return The next-use position, or {@link #NEVER}.
+     */
+    public long getNextUseAt(int frame) {
+        return frame < heapSize ? nextUseOf[frame] : NEVER;
+    }
+
+    @Override
+    public String getName() {
+        return "OPT";
+    }
+}
@@ -0,0 +1,53 @@
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.PrimitiveIterator;
+
+/**
+ * A stream of page references read from a trace, in either the text format of {@link PageTraceReader}
+ * or the binary format of {@link BinaryTraceWriter}.
+ */
+public interface PageTrace extends PrimitiveIterator.OfInt, Closeable {
+
+    /**
+     * Returns the next number in the trace without limiting it to the int range.
+     */
+    long nextLong();
+
+    /**
+     * Tells whether the page number last returned was marked as a write.
+     */
+    boolean isLastWrite();
+
+    /**
+     * Reads up to {@code length} page numbers into an array.
+     * @return The number of page numbers read, or 0 at the end of the trace.
+     */
+    default int read(int[] dest, int offset, int length) {
+        int count = 0;
+        while (count < length && hasNext()) {
+            dest[offset + count++] = nextInt();
+        }
+        return count;
+    }
+
+    /**
+     * Opens a trace file in whichever format it is written, or standard input as text if the path is "-".
+     * @param path The path of the trace file.
+     * @return A trace positioned at the first page number.
+     */
+    static PageTrace open(String path) throws IOException {
+        if (!"-".equals(path)) {
+            byte[] magic = new byte[4];
+            int read;
+            try (InputStream in = new FileInputStream(path)) {
+                read = in.readNBytes(magic, 0, magic.length);
+            }
+            if (read == magic.length && BinaryTraceWriter.hasPageMagic(magic)) {
+                return new BinaryTraceReader(path);
+            }
+        }
+        return PageTraceReader.open(path);
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams page numbers from a text reference string such as "7 0 1 2 0 3" or "7,0,1,2".
+ * Numbers may be separated by any ASCII non-digit characters, and a '#' starts a comment that runs to the
+ * end of the line, whether it opens the line or follows a number.
+ * A UTF-8 byte order mark at the start is skipped; any other non-ASCII byte outside a comment is an error.
+ * A number followed directly by 'w' or 'W', as in "12w", marks a write to that page.
+ * Numbers beyond the int range, such as virtual addresses, can be read with {@link #nextLong()}.
+ * Parses straight from a byte buffer so arbitrarily large traces can be replayed in constant memory.
+ */
+public class PageTraceReader implements PageTrace {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long bufferStart; // Offset in the stream of buffer[0]
+    private boolean started; // Whether the first byte has been read
+
+    private boolean hasPending; // Whether pendingValue holds a parsed number not yet returned
+    private long pendingValue;
+    private boolean pendingWrite;
+    private boolean lastWrite;
+    private boolean finished;
+
+    /**
+     * Constructor for PageTraceReader.
+     * @param in The stream to read the trace from. It is closed by {@link #close()}.
+     */
+    public PageTraceReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Opens a text trace file, or standard input if the path is "-".
+     * @param path The path of the trace file.
+     * @return A reader positioned at the first page number.
+     */
+    public static PageTraceReader open(String path) throws IOException {
+        return new PageTraceReader("-".equals(path) ? System.in : new FileInputStream(path));
+    }
+
+    /**
+     * Reads a whole trace file, text or binary, into memory.
+     * @param path The path of the trace file, or "-" for standard input.
+     * @return Every page number in the trace, in order.
+     */
+    public static int[] readAll(String path) throws IOException {
+        try (PageTrace reader = PageTrace.open(path)) {
+            int[] trace = new int[1 << 16];
+            int length = 0;
+            while (true) {
+                if (length == trace.length) {
+                    if (length == Integer.MAX_VALUE - 8) {
+                        throw new IOException("Trace too long to hold in memory.");
+                    }
+                    trace = Arrays.copyOf(trace, (int) Math.min(Integer.MAX_VALUE - 8, (long) length * 2));
+                }
+                int read = reader.read(trace, length, trace.length - length);
+                if (read == 0) {
+                    return Arrays.copyOf(trace, length);
+                }
+                length += read;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!hasPending && !finished) {
+            parseNext();
+        }
+        return hasPending;
+    }
+
+    @Override
+    public int nextInt() {
+        if (hasNext() && (pendingValue > Integer.MAX_VALUE || pendingValue < Integer.MIN_VALUE)) {
+            throw new NumberFormatException("Page number out of range in trace.");
+        }
+        return (int) nextLong();
+    }
+
+    @Override
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("End of trace reached.");
+        }
+        hasPending = false;
+        lastWrite = pendingWrite;
+        return pendingValue;
+    }
+
+    @Override
+    public boolean isLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Parses the next number in the stream into pendingValue.
+     */
+    private void parseNext() {
+        int c = skipSeparators();
+        if (c < 0) {
+            finished = true;
+            return;
+        }
+        boolean negative = false;
+        if (c == '-') {
+            negative = true;
+            c = readByte();
+        }
+        long value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw new NumberFormatException("Number out of range in trace.");
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            c = readByte();
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Stray '-' in trace.");
+        }
+        if (c >= 0x80) {
+            throw new NumberFormatException(String.format("Non-ASCII byte 0x%02X at offset %d in trace.", c,
+                    bufferStart + position - 1));
+        }
+        pendingValue = negative ? -value : value;
+        pendingWrite = c == 'w' || c == 'W';
+        if (c == '#') {
+            position--; // Leave it for skipSeparators, so "12#note" starts a comment as "12 #note" does
+        }
+        hasPending = true;
+    }
+
+    /**
+     * Skips separators and comments.
+     * @return The first byte of the next number, or -1 at the end of the stream.
+     */
+    private int skipSeparators() {
+        int c = readByte();
+        if (!started) {
+            started = true;
+            if (c == 0xEF) {
+                if (readByte() != 0xBB || readByte() != 0xBF) {
+                    throw new NumberFormatException("Trace starts with a malformed byte order mark.");
+                }
+                c = readByte();
+            }
+        }
+        while (c >= 0) {
+            if (c == '#') {
+                while (c >= 0 && c != '\n') {
+                    c = readByte();
+                }
+            } else if ((c >= '0' && c <= '9') || c == '-') {
+                return c;
+            } else if (c >= 0x80) {
+                throw new NumberFormatException(String.format("Non-ASCII byte 0x%02X at offset %d in trace.", c,
+                        bufferStart + position - 1));
+            } else {
+                c = readByte();
+            }
+        }
+        return -1;
+    }
+
+    private int readByte() {
+        if (position == limit) {
+            bufferStart += limit;
+            try {
+                limit = in.read(buffer, 0, BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Common interface for the page replacement engines.
+ * Lets the GUI and the trace tools drive any policy through the same request and stats calls.
+ */
+public interface ReplacementPolicy {
+
+    /** Outcome code: the requested page was already resident. */
+    int HIT = 0;
+    /** Outcome code: the page was loaded into a frame that was empty. */
+    int FAULT_EMPTY = 1;
+    /** Outcome code: the page was loaded by replacing a resident page. */
+    int FAULT_REPLACED = 2;
+
+    /** Names accepted by {@link #create(String, int)}, in the order the GUI lists them. */
+    String[] POLICY_NAMES = { "Clock", "FIFO", "LRU", "GCLOCK", "CLOCK-Pro", "ARC", "WSClock" };
+
+    /**
+     * Simulates a request for a specific page without building a result message.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    int access(int pageNumber);
+
+    /**
+     * Simulates a request for a specific page.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return A String describing the result.
+     */
+    default String requestPage(int pageNumber) {
+        access(pageNumber);
+        return describeLastRequest();
+    }
+
+    /**
+     * Builds the result message for the most recent request.
+     * @return A String describing the last result, or an empty String if nothing was requested yet.
+     */
+    String describeLastRequest();
+
+    /**
+     * Replays a whole reference string without producing any per-request output.
+     * @param trace The page numbers to request, in order.
+     * @return The number of page faults the replay caused.
+     */
+    default long replay(int[] trace) {
+        long faultsBefore = getPageFaults();
+        for (int pageNumber : trace) {
+            access(pageNumber);
+        }
+        return getPageFaults() - faultsBefore;
+    }
+
+    /**
+     * Replays a reference string supplied lazily, so traces larger than memory can be streamed.
+     * @param trace An iterator over the page numbers to request, in order.
+     * @return The number of page faults the replay caused.
+     */
+    default long replay(PrimitiveIterator.OfInt trace) {
+        long faultsBefore = getPageFaults();
+        while (trace.hasNext()) {
+            access(trace.nextInt());
+        }
+        return getPageFaults() - faultsBefore;
+    }
+
+    /**
+     * Replays a reference string supplied as a stream.
+     * @param trace A sequential stream of the page numbers to request, in order.
+     * @return The number of page faults the replay caused.
+     */
+    default long replay(IntStream trace) {
+        return replay(trace.sequential().iterator());
+    }
+
+    // --- Frame view ---
+
+    /**
+     * Gets the page held by a single frame.
+     * @param frame The frame index.
+     * @return The page number, or -1 if the frame is empty.
+     */
+    int getPageAt(int frame);
+
+    /**
+     * Gets the reference bit of a single frame, or the policy's closest equivalent
+     * (the GCLOCK counter, or 1 for hot / frequently used pages in CLOCK-Pro and ARC).
+     * @param frame The frame index.
+     * @return The value to show as the frame's reference bit.
+     */
+    int getReferenceBitAt(int frame);
+
+    /**
+     * Gets the frame the policy's hand points at.
+     * @return The frame index, or -1 if the policy has no hand.
+     */
+    default int getClockHand() {
+        return -1;
+    }
+
+    /**
+     * Builds a snapshot of every frame as ClockFrame objects.
+     * Allocates one object per frame, so it is meant for display rather than the request path.
+     * @return A new array describing each frame.
+     */
+    default ClockFrame[] getFrames() {
+        ClockFrame[] snapshot = new ClockFrame[getNumFrames()];
+        for (int i = 0; i < snapshot.length; i++) {
+            ClockFrame frame = new ClockFrame();
+            frame.setPageNumber(getPageAt(i));
+            frame.setReferenceBit(getReferenceBitAt(i) > 0 ? 1 : 0);
+            snapshot[i] = frame;
+        }
+        return snapshot;
+    }
+
+    // --- Stats ---
+
+    String getName();
+
+    int getNumFrames();
+
+    int getLastFrame();
+
+    int getLastVictimPage();
+
+    long getPageHits();
+
+    long getPageFaults();
+
+    default double getHitRatio() {
+        long totalRequests = getPageHits() + getPageFaults();
+        if (totalRequests == 0) {
+            return 0.0;
+        }
+        return (double) getPageHits() / totalRequests;
+    }
+
+    /**
+     * Creates a replacement engine by name.
+     * @param name One of {@link #POLICY_NAMES}, compared without regard to case.
+     * @param numFrames The number of frames available in memory.
+     * @return A new engine with all frames empty.
+     */
+    static ReplacementPolicy create(String name, int numFrames) {
+        switch (name.toUpperCase()) {
+            case "CLOCK":
+                return new ClockAlgorithm(numFrames);
+            case "FIFO":
+                return new FIFOAlgorithm(numFrames);
+            case "LRU":
+                return new LRUAlgorithm(numFrames);
+            case "GCLOCK":
+                return new GClockAlgorithm(numFrames);
+            case "CLOCK-PRO":
+            case "CLOCKPRO":
+                return new ClockProAlgorithm(numFrames);
+            case "ARC":
+                return new ARCAlgorithm(numFrames);
+            case "WSCLOCK":
+                return new WSClockAlgorithm(numFrames);
+            default:
+                throw new IllegalArgumentException("Unknown replacement policy: " + name);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+import java.util.Arrays;
+
+/**
+ * Puts a set-associative TLB and a multi-level page table in front of a replacement engine.
+ * Requests are virtual addresses; the page number is the address divided by the page size.
+ * A TLB hit translates the address at no extra cost. A miss walks the page table, touching one
+ * entry per level, and then loads the translation into the TLB, evicting within its set by LRU,
+ * FIFO or a per-set clock. Every request is still passed to the replacement engine so reference
+ * bits are kept exactly as without a TLB; the TLB changes what translation costs, not which pages
+ * stay resident. When the engine evicts a page its translation is removed from the TLB.
+ *
+ * The TLB is held in flat arrays indexed by set * ways + way, so a probe never allocates.
+ * Usage: java TLBSimulator &lt;numFrames&gt; &lt;traceFile | -&gt; [pageSize [entries [ways [lru | fifo | clock [levels]]]]]
+ * The trace holds virtual addresses in decimal.
+ */
+public class TLBSimulator {
+
+    /**
+     * How a TLB set picks the entry to replace.
+     */
+    public enum Policy {
+        /** Replace the entry used least recently. */
+        LRU,
+        /** Replace the entry loaded earliest. */
+        FIFO,
+        /** Sweep a hand over the set, giving used entries a second chance. */
+        CLOCK
+    }
+
+    /** Page size used by {@link #TLBSimulator(ReplacementPolicy)}, in bytes. */
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    /** TLB size used by {@link #TLBSimulator(ReplacementPolicy)}. */
+    public static final int DEFAULT_ENTRIES = 64;
+    /** TLB associativity used by {@link #TLBSimulator(ReplacementPolicy)}. */
+    public static final int DEFAULT_WAYS = 4;
+    /** Page-table depth used by {@link #TLBSimulator(ReplacementPolicy)}, as on x86-64. */
+    public static final int DEFAULT_LEVELS = 4;
+    /** Cost of reading one page-table entry during a walk, in cycles. */
+    public static final int DEFAULT_LEVEL_LATENCY = 100;
+
+    private static final int EMPTY = -1; // Page number stored in an invalid TLB entry
+
+    private final ReplacementPolicy memory;
+    private final int pageShift;
+    private final int sets;
+    private final int ways;
+    private final Policy policy;
+    private final int levels;
+    private final int levelLatency;
+
+    private final int[] tags; // Page number held by each TLB entry, -1 if invalid
+    private final long[] stamps; // Last use (LRU), load time (FIFO) or reference bit (CLOCK)
+    private final int[] setHands; // Clock hand of each set, as a way number
+    private long now; // Requests so far, used as the LRU and FIFO timestamp
+
+    private long tlbHits;
+    private long tlbMisses;
+    private long walks;
+    private long shootdowns; // TLB entries removed because the engine evicted their page
+    private boolean lastTlbHit;
+
+    /**
+     * Constructor for TLBSimulator with a 64-entry 4-way LRU TLB, 4 KiB pages and a 4-level page table.
+     * @param memory The replacement engine managing physical frames.
+     */
+    public TLBSimulator(ReplacementPolicy memory) {
+        this(memory, DEFAULT_PAGE_SIZE, DEFAULT_ENTRIES, DEFAULT_WAYS, Policy.LRU, DEFAULT_LEVELS, DEFAULT_LEVEL_LATENCY);
+    }
+
+    /**
+     * Constructor for TLBSimulator.
+     * @param memory The replacement engine managing physical frames.
+     * @param pageSize The page size in bytes; must be a power of two.
+     * @param entries The number of TLB entries; must be a multiple of ways.
+     * @param ways The associativity of the TLB. Equal to entries for a fully associative TLB.
+     * @param policy How each TLB set picks the entry to replace.
+     * @param levels The number of page-table levels a walk reads.
+     * @param levelLatency The cost of reading one page-table entry, in cycles.
+     */
+    public TLBSimulator(ReplacementPolicy memory, int pageSize, int entries, int ways, Policy policy,
+            int levels, int levelLatency) {
+        if (pageSize <= 0 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a positive power of two.");
+        }
+        if (entries <= 0 || ways <= 0 || entries % ways != 0) {
+            throw new IllegalArgumentException("TLB entries must be a positive multiple of the number of ways.");
+        }
+        if (levels <= 0 || levelLatency < 0) {
+            throw new IllegalArgumentException("Page-table levels must be positive and latency cannot be negative.");
+        }
+        this.memory = memory;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        this.sets = entries / ways;
+        this.ways = ways;
+        this.policy = policy;
+        this.levels = levels;
+        this.levelLatency = levelLatency;
+        this.tags = new int[entries];
+        Arrays.fill(tags, EMPTY); // Initialize with invalid entries
+        this.stamps = new long[entries];
+        this.setHands = new int[sets];
+    }
+
+    /**
+     * Translates a virtual address and requests its page from the replacement engine.
+     * @param address The virtual address; must not be negative.
+     * @return {@link ReplacementPolicy#HIT}, {@link ReplacementPolicy#FAULT_EMPTY} or {@link ReplacementPolicy#FAULT_REPLACED}.
+     */
+    public int access(long address) {
+        if (address < 0) {
+            throw new IllegalArgumentException("Address cannot be negative.");
+        }
+        long pageNumber = address >>> pageShift;
+        if (pageNumber > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Address " + address + " is beyond the largest page number.");
+        }
+        return accessPage((int) pageNumber);
+    }
+
+    /**
+     * Requests a page that has already been translated to a page number.
+     */
+    private int accessPage(int pageNumber) {
+        now++;
+        int base = (pageNumber % sets) * ways;
+        int entry = probe(base, pageNumber);
+        int outcome = memory.access(pageNumber);
+        if (entry != -1 && outcome == ReplacementPolicy.HIT) {
+            tlbHits++;
+            touch(entry);
+            lastTlbHit = true;
+            return outcome;
+        }
+
+        // TLB miss: walk the page table, fault if the page is not resident, then load the translation
+        tlbMisses++;
+        walks++;
+        lastTlbHit = false;
+        if (outcome == ReplacementPolicy.FAULT_REPLACED) {
+            invalidate(memory.getLastVictimPage());
+        }
+        if (entry == -1) {
+            entry = chooseEntry(base);
+            tags[entry] = pageNumber;
+            stamps[entry] = policy == Policy.CLOCK ? 1 : now;
+        } else {
+            touch(entry); // Stale entry for a page the engine dropped without telling us
+        }
+        return outcome;
+    }
+
+    /**
+     * Looks for a page in one TLB set.
+     * @return The entry index, or -1 if the set does not hold the page.
+     */
+    private int probe(int base, int pageNumber) {
+        for (int entry = base; entry < base + ways; entry++) {
+            if (tags[entry] == pageNumber) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private void touch(int entry) {
+        if (policy == Policy.LRU) {
+            stamps[entry] = now;
+        } else if (policy == Policy.CLOCK) {
+            stamps[entry] = 1;
+        }
+    }
+
+    /**
+     * Picks the entry a new translation goes into: an invalid one if the set has any, else the policy's victim.
+     */
+    private int chooseEntry(int base) {
+        for (int entry = base; entry < base + ways; entry++) {
+            if (tags[entry] == EMPTY) {
+                return entry;
+            }
+        }
+        if (policy == Policy.CLOCK) {
+            int set = base / ways;
+            int hand = setHands[set];
+            while (stamps[base + hand] != 0) {
+                stamps[base + hand] = 0; // Second chance
+                hand = hand + 1 == ways ? 0 : hand + 1;
+            }
+            setHands[set] = hand + 1 == ways ? 0 : hand + 1;
+            return base + hand;
+        }
+        int victim = base;
+        for (int entry = base + 1; entry < base + ways; entry++) {
+            if (stamps[entry] < stamps[victim]) {
+                victim = entry;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Removes the translation of a page the engine has evicted.
+     */
+    private void invalidate(int pageNumber) {
+        if (pageNumber < 0) {
+            return;
+        }
+        int entry = probe((pageNumber % sets) * ways, pageNumber);
+        if (entry != -1) {
+            tags[entry] = EMPTY;
+            stamps[entry] = 0;
+            shootdowns++;
+        }
+    }
+
+    /**
+     * Invalidates every TLB entry, as on a context switch without address-space tags.
+     */
+    public void flush() {
+        Arrays.fill(tags, EMPTY);
+        Arrays.fill(stamps, 0);
+        Arrays.fill(setHands, 0);
+    }
+
+    // --- Stats ---
+
+    public ReplacementPolicy getMemory() {
+        return memory;
+    }
+
+    public int getPageSize() {
+        return 1 << pageShift;
+    }
+
+    public int getEntries() {
+        return tags.length;
+    }
+
+    public int getWays() {
+        return ways;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * Tells whether the most recent request was translated by the TLB.
+     */
+    public boolean wasLastTlbHit() {
+        return lastTlbHit;
+    }
+
+    public long getTlbHits() {
+        return tlbHits;
+    }
+
+    public long getTlbMisses() {
+        return tlbMisses;
+    }
+
+    public double getTlbHitRatio() {
+        long total = tlbHits + tlbMisses;
+        return total == 0 ? 0.0 : (double) tlbHits / total;
+    }
+
+    public long getWalks() {
+        return walks;
+    }
+
+    /**
+     * Gets the number of page-table entries read by all walks.
+     */
+    public long getWalkReferences() {
+        return walks * levels;
+    }
+
+    /**
+     * Gets the modelled cost of all walks: one latency per level per walk, in cycles.
+     */
+    public long getWalkCycles() {
+        return walks * levels * (long) levelLatency;
+    }
+
+    public long getShootdowns() {
+        return shootdowns;
+    }
+
+    public long getPageFaults() {
+        return memory.getPageFaults();
+    }
+
+    /**
+     * Gets the TLB reach: the bytes of memory the TLB can translate without a walk.
+     */
+    public long getReach() {
+        return (long) tags.length << pageShift;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 7) {
+            System.err.println("Usage: java TLBSimulator <numFrames> <traceFile | -> [pageSize [entries [ways [lru | fifo | clock [levels]]]]]");
+            System.exit(2);
+        }
+        try {
+            int numFrames = Integer.parseInt(args[0]);
+            int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PAGE_SIZE;
+            int entries = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_ENTRIES;
+            int ways = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_WAYS;
+            Policy policy = args.length > 5 ? Policy.valueOf(args[5].toUpperCase()) : Policy.LRU;
+            int levels = args.length > 6 ? Integer.parseInt(args[6]) : DEFAULT_LEVELS;
+            TLBSimulator tlb = new TLBSimulator(new ClockAlgorithm(numFrames), pageSize, entries, ways, policy,
+                    levels, DEFAULT_LEVEL_LATENCY);
+            try (PageTrace trace = PageTrace.open(args[1])) {
+                while (trace.hasNext()) {
+                    tlb.access(trace.nextLong());
+                }
+            }
+            long requests = tlb.getTlbHits() + tlb.getTlbMisses();
+            System.out.printf("Frames: %d, page size: %d, TLB: %d entries, %d-way %s, reach %d bytes%n",
+                    numFrames, pageSize, entries, ways, policy, tlb.getReach());
+            System.out.printf("Requests: %d%n", requests);
+            System.out.printf("TLB hits: %d (%.4f), misses: %d, shootdowns: %d%n",
+                    tlb.getTlbHits(), tlb.getTlbHitRatio(), tlb.getTlbMisses(), tlb.getShootdowns());
+            System.out.printf("Page-table walks: %d, %d levels, %d entries read, %d cycles%n",
+                    tlb.getWalks(), levels, tlb.getWalkReferences(), tlb.getWalkCycles());
+            System.out.printf("Page faults: %d (%.4f)%n", tlb.getPageFaults(),
+                    requests == 0 ? 0.0 : (double) tlb.getPageFaults() / requests);
+        } catch (Exception e) {
+            System.err.println("Simulation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/**
+ * Implements WSClock page replacement with dirty pages and asynchronous write-back.
+ * Each frame keeps a reference bit, a dirty bit and the virtual time it was last seen in use,
+ * where virtual time counts requests. On a fault the hand evicts the first clean page that has
+ * been out of use for longer than the working-set window tau. Old dirty pages it passes are
+ * scheduled for write-back instead, at most a fixed number per sweep, and become clean once the
+ * write completes. If a whole lap finds nothing to evict, the fault waits for the oldest write in
+ * flight, then falls back to any clean page, and only then writes a dirty page synchronously.
+ *
+ * I/O is modelled in units of virtual time: a read takes readCost requests and a write
+ * writeCost requests, so a write-back scheduled now completes writeCost requests later.
+ */
+public class WSClockAlgorithm extends AbstractReplacementPolicy {
+
+    /** Read cost used by {@link #WSClockAlgorithm(int)}, in requests. */
+    public static final int DEFAULT_READ_COST = 50;
+    /** Write cost used by {@link #WSClockAlgorithm(int)}, in requests. */
+    public static final int DEFAULT_WRITE_COST = 100;
+    /** Write-back cap used by {@link #WSClockAlgorithm(int)}. */
+    public static final int DEFAULT_MAX_WRITES_PER_SWEEP = 8;
+
+    private IntIntHashMap pageIndex; // Maps page number -> index of the frame holding it
+    private long[] referenceBits; // One bit per frame, 64 frames per word
+    private long[] dirtyBits;
+    private long[] lastUse; // Virtual time each frame was last seen referenced
+    private long[] writeCompletesAt; // Completion time of the frame's write-back in flight, 0 if none
+    private int clockHand;
+    private long now; // Virtual time: the number of requests so far
+
+    private final long tau;
+    private final int maxWritesPerSweep;
+    private final int readCost;
+    private final int writeCost;
+
+    // Write-backs in flight, oldest first. Entries for writes later cancelled stay until they expire.
+    private int[] writeQueueFrames;
+    private long[] writeQueueTimes;
+    private int writeQueueHead;
+    private int writeQueueSize;
+
+    private long cleanEvictions;
+    private long dirtyEvictions; // Evictions that had to write the page synchronously
+    private long writeBacks; // Asynchronous write-backs scheduled
+    private long writeWaits; // Faults that waited for a write-back to finish
+    private long stallTime; // Virtual time faulting requests spent waiting on I/O
+
+    /**
+     * Constructor for WSClockAlgorithm with tau equal to the number of frames and default I/O costs.
+     * @param numFrames The number of frames available in memory.
+     */
+    public WSClockAlgorithm(int numFrames) {
+        this(numFrames, numFrames, DEFAULT_MAX_WRITES_PER_SWEEP, DEFAULT_READ_COST, DEFAULT_WRITE_COST);
+    }
+
+    /**
+     * Constructor for WSClockAlgorithm.
+     * @param numFrames The number of frames available in memory.
+     * @param tau The working-set window in requests; older unreferenced pages may be evicted.
+     * @param maxWritesPerSweep The most write-backs a single fault may schedule.
+     * @param readCost The modelled cost of reading a page in, in requests.
+     * @param writeCost The modelled cost of writing a page out, in requests.
+     */
+    public WSClockAlgorithm(int numFrames, long tau, int maxWritesPerSweep, int readCost, int writeCost) {
+        super(numFrames);
+        if (tau < 0 || maxWritesPerSweep < 0 || readCost < 0 || writeCost < 0) {
+            throw new IllegalArgumentException("Window, write cap and I/O costs cannot be negative.");
+        }
+        this.tau = tau;
+        this.maxWritesPerSweep = maxWritesPerSweep;
+        this.readCost = readCost;
+        this.writeCost = writeCost;
+        this.pageIndex = new IntIntHashMap(numFrames);
+        this.referenceBits = new long[(numFrames + 63) >>> 6];
+        this.dirtyBits = new long[(numFrames + 63) >>> 6];
+        this.lastUse = new long[numFrames];
+        this.writeCompletesAt = new long[numFrames];
+        this.writeQueueFrames = new int[Math.max(16, Math.min(numFrames, 1024))];
+        this.writeQueueTimes = new long[writeQueueFrames.length];
+        this.clockHand = 0;
+    }
+
+    /**
+     * Simulates a read of a page.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    @Override
+    public int access(int pageNumber) {
+        return access(pageNumber, false);
+    }
+
+    /**
+     * Simulates a read or write of a page. A write marks the page dirty.
+     * @param pageNumber The page number being requested; must not be negative.
+     * @param write Whether the request modifies the page.
+     * @return {@link #HIT}, {@link #FAULT_EMPTY} or {@link #FAULT_REPLACED}.
+     */
+    public int access(int pageNumber, boolean write) {
+        checkPageNumber(pageNumber);
+        now++;
+        completeWrites();
+
+        int foundIndex = pageIndex.get(pageNumber);
+        if (foundIndex != -1) {
+            setBit(referenceBits, foundIndex);
+            if (write) {
+                markDirty(foundIndex);
+            }
+            return recordHit(pageNumber, foundIndex);
+        }
+
+        recordFault(pageNumber);
+        stallTime += readCost;
+        int victim = sweepToVictim();
+        if (pages[victim] != EMPTY) {
+            if (isSet(dirtyBits, victim)) {
+                // No clean page could be found, so the fault writes this one out itself
+                dirtyEvictions++;
+                stallTime += writeCost;
+                clearBit(dirtyBits, victim);
+                writeCompletesAt[victim] = 0;
+            } else {
+                cleanEvictions++;
+            }
+            pageIndex.remove(evictFrame(victim));
+        }
+        int outcome = loadFrame(pageNumber, victim);
+        if (pageNumber != EMPTY) {
+            pageIndex.put(pageNumber, victim); // -1 marks an empty frame and is never indexed
+        }
+        setBit(referenceBits, victim);
+        if (write) {
+            setBit(dirtyBits, victim);
+        }
+        lastUse[victim] = now;
+        advanceClockHand();
+        return outcome;
+    }
+
+    /**
+     * Moves the hand to the frame the current fault should use.
+     * @return The victim frame; the clock hand is left pointing at it.
+     */
+    private int sweepToVictim() {
+        int scheduled = 0;
+        int firstClean = -1; // Clean page still inside the working set, used if nothing older turns up
+        for (int step = 0; step < numFrames; step++) {
+            int frame = clockHand;
+            if (pages[frame] == EMPTY) {
+                return frame;
+            }
+            if (isSet(referenceBits, frame)) {
+                // Used since the last sweep: still in the working set
+                clearBit(referenceBits, frame);
+                lastUse[frame] = now;
+            } else {
+                boolean dirty = isSet(dirtyBits, frame);
+                if (now - lastUse[frame] > tau) {
+                    if (!dirty) {
+                        return frame;
+                    }
+                    if (writeCompletesAt[frame] == 0 && scheduled < maxWritesPerSweep) {
+                        scheduleWrite(frame);
+                        scheduled++;
+                    }
+                } else if (!dirty && firstClean == -1) {
+                    firstClean = frame;
+                }
+            }
+            advanceClockHand();
+        }
+
+        // A whole lap found no old clean page
+        int cleaned = waitForWrite();
+        if (cleaned != -1) {
+            clockHand = cleaned;
+        } else if (firstClean != -1) {
+            clockHand = firstClean;
+        }
+        return clockHand; // Dirty unless a write finished or a clean page was seen
+    }
+
+    private void scheduleWrite(int frame) {
+        if (writeQueueSize == writeQueueFrames.length) {
+            growWriteQueue();
+        }
+        int tail = (writeQueueHead + writeQueueSize) % writeQueueFrames.length;
+        long completesAt = now + writeCost;
+        writeQueueFrames[tail] = frame;
+        writeQueueTimes[tail] = completesAt;
+        writeQueueSize++;
+        writeCompletesAt[frame] = completesAt;
+        writeBacks++;
+    }
+
+    /**
+     * Marks every write-back due by now as finished, cleaning its page.
+     */
+    private void completeWrites() {
+        while (writeQueueSize > 0 && writeQueueTimes[writeQueueHead] <= now) {
+            finishOldestWrite();
+        }
+    }
+
+    /**
+     * Waits for the oldest write-back still in flight, charging the wait as stall time.
+     * @return The frame the write cleaned, or -1 if no write was in flight.
+     */
+    private int waitForWrite() {
+        while (writeQueueSize > 0) {
+            long completesAt = writeQueueTimes[writeQueueHead];
+            int frame = finishOldestWrite();
+            if (frame != -1) {
+                stallTime += completesAt - now;
+                writeWaits++;
+                return frame;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the oldest queue entry and cleans its page unless the write was cancelled.
+     * @return The cleaned frame, or -1 if the entry had been cancelled.
+     */
+    private int finishOldestWrite() {
+        int frame = writeQueueFrames[writeQueueHead];
+        long completesAt = writeQueueTimes[writeQueueHead];
+        writeQueueHead = (writeQueueHead + 1) % writeQueueFrames.length;
+        writeQueueSize--;
+        if (writeCompletesAt[frame] != completesAt) {
+            return -1; // The page was written again, or evicted, after this write was scheduled
+        }
+        writeCompletesAt[frame] = 0;
+        clearBit(dirtyBits, frame);
+        return frame;
+    }
+
+    private void growWriteQueue() {
+        int[] frames = new int[writeQueueFrames.length * 2];
+        long[] times = new long[frames.length];
+        for (int i = 0; i < writeQueueSize; i++) {
+            int from = (writeQueueHead + i) % writeQueueFrames.length;
+            frames[i] = writeQueueFrames[from];
+            times[i] = writeQueueTimes[from];
+        }
+        writeQueueFrames = frames;
+        writeQueueTimes = times;
+        writeQueueHead = 0;
+    }
+
+    /**
+     * Marks a resident page dirty. A write-back already in flight no longer covers the new data.
+     */
+    private void markDirty(int frame) {
+        setBit(dirtyBits, frame);
+        writeCompletesAt[frame] = 0;
+    }
+
+    /**
+     * Advances the clock hand to the next frame, wrapping around circularly.
+     */
+    private void advanceClockHand() {
+        if (++clockHand == numFrames) {
+            clockHand = 0;
+        }
+    }
+
+    private static boolean isSet(long[] bits, int frame) {
+        return (bits[frame >>> 6] & (1L << frame)) != 0;
+    }
+
+    private static void setBit(long[] bits, int frame) {
+        bits[frame >>> 6] |= 1L << frame;
+    }
+
+    private static void clearBit(long[] bits, int frame) {
+        bits[frame >>> 6] &= ~(1L << frame);
+    }
+
+    // --- Getters for GUI ---
+
+    @Override
+    public int getReferenceBitAt(int frame) {
+        return isSet(referenceBits, frame) ? 1 : 0;
+    }
+
+    public boolean isDirtyAt(int frame) {
+        return isSet(dirtyBits, frame);
+    }
+
+    @Override
+    public String getName() {
+        return "WSClock";
+    }
+
+    @Override
+    public int getClockHand() {
+        return clockHand;
+    }
+
+    // --- Write-back stats ---
+
+    public long getTau() {
+        return tau;
+    }
+
+    public long getCleanEvictions() {
+        return cleanEvictions;
+    }
+
+    public long getDirtyEvictions() {
+        return dirtyEvictions;
+    }
+
+    public long getWriteBacks() {
+        return writeBacks;
+    }
+
+    public long getWriteWaits() {
+        return writeWaits;
+    }
+
+    /**
+     * Gets the total modelled I/O cost: every page read in plus every page written out,
+     * whether by background write-back or by a fault.
+     */
+    public long getModeledIoCost() {
+        return pageFaults * readCost + (writeBacks + dirtyEvictions) * writeCost;
+    }
+
+    /**
+     * Gets the modelled time faulting requests spent blocked on I/O: their own reads,
+     * synchronous writes of dirty victims, and waits for write-backs in flight.
+     */
+    public long getStallTime() {
+        return stallTime;
+    }
+}
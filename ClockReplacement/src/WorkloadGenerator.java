@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Streams synthetic reference strings one page number at a time, without materializing them.
+ * Every generator produces a fixed number of references and can be passed straight to
+ * {@link ReplacementPolicy#replay(PrimitiveIterator.OfInt)}, or drained in blocks with
+ * {@link #read(int[], int, int)}. Randomized generators take a seed and produce the same
+ * sequence for the same seed; they use a SplitMix64 generator inlined into the request loop
+ * rather than java.util.Random, whose synchronized state would dominate the cost of a request.
+ * Usage: java WorkloadGenerator &lt;kind&gt; &lt;length&gt; [parameters...] writes a trace to standard output:
+ *   uniform &lt;numPages&gt; [seed]
+ *   zipf &lt;numPages&gt; &lt;exponent&gt; [seed]
+ *   scan [firstPage]
+ *   loop &lt;loopSize&gt;
+ *   phases &lt;numPages&gt; &lt;workingSetSize&gt; &lt;phaseLength&gt; &lt;locality&gt; [seed]
+ */
+public abstract class WorkloadGenerator implements PrimitiveIterator.OfInt {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long remaining;
+    private long seed; // SplitMix64 state
+
+    /**
+     * Constructor for WorkloadGenerator.
+     * @param length The number of references to produce.
+     * @param seed The seed for the random sequence; ignored by deterministic generators.
+     */
+    protected WorkloadGenerator(long length, long seed) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative.");
+        }
+        this.remaining = length;
+        this.seed = seed;
+    }
+
+    /**
+     * Produces the next page number. Called exactly once per reference.
+     */
+    protected abstract int generate();
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public int nextInt() {
+        if (remaining == 0) {
+            throw new NoSuchElementException("End of workload reached.");
+        }
+        remaining--;
+        return generate();
+    }
+
+    /**
+     * Writes up to {@code length} page numbers into an array.
+     * @return The number of page numbers written, or 0 when the workload is exhausted.
+     */
+    public int read(int[] dest, int offset, int length) {
+        int count = (int) Math.min(length, remaining);
+        for (int i = offset; i < offset + count; i++) {
+            dest[i] = generate();
+        }
+        remaining -= count;
+        return count;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    // --- Random numbers ---
+
+    protected final long nextRandomLong() {
+        long z = (seed += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a random int in [0, bound) by multiplying rather than dividing; the bias is below 2^-32.
+     */
+    protected final int nextRandomInt(int bound) {
+        return (int) (((nextRandomLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns a random double in [0, 1).
+     */
+    protected final double nextRandomDouble() {
+        return (nextRandomLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // --- Generators ---
+
+    /**
+     * Every page in [0, numPages) is equally likely.
+     */
+    public static WorkloadGenerator uniform(int numPages, long length, long seed) {
+        checkPages(numPages);
+        return new WorkloadGenerator(length, seed) {
+            @Override
+            protected int generate() {
+                return nextRandomInt(numPages);
+            }
+        };
+    }
+
+    /**
+     * Page k is referenced with probability proportional to 1 / (k + 1)^exponent, so page 0 is the hottest.
+     * Sampled by rejection-inversion (Hormann and Derflinger), which needs no table and no
+     * normalization constant, so the setup cost does not depend on the number of pages.
+     * @param exponent The skew; must be positive. Around 1 is typical of real reference strings.
+     */
+    public static WorkloadGenerator zipf(int numPages, double exponent, long length, long seed) {
+        checkPages(numPages);
+        if (!(exponent > 0)) {
+            throw new IllegalArgumentException("Zipf exponent must be positive.");
+        }
+        return new ZipfGenerator(numPages, exponent, length, seed);
+    }
+
+    /**
+     * One pass over consecutive pages, starting at firstPage; no page is referenced twice.
+     */
+    public static WorkloadGenerator scan(int firstPage, long length) {
+        if (firstPage < 0 || firstPage + (length - 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Scan must stay within the non-negative page numbers.");
+        }
+        return new WorkloadGenerator(length, 0) {
+            private int next = firstPage;
+
+            @Override
+            protected int generate() {
+                return next++;
+            }
+        };
+    }
+
+    /**
+     * Pages 0 to loopSize - 1 in order, over and over. Defeats LRU and Clock when loopSize exceeds the frame count.
+     */
+    public static WorkloadGenerator loop(int loopSize, long length) {
+        checkPages(loopSize);
+        return new WorkloadGenerator(length, 0) {
+            private int next;
+
+            @Override
+            protected int generate() {
+                int page = next;
+                if (++next == loopSize) {
+                    next = 0;
+                }
+                return page;
+            }
+        };
+    }
+
+    /**
+     * A working set of consecutive pages that moves to a new random place every phaseLength references.
+     * Each reference falls inside the working set with probability locality and anywhere in
+     * [0, numPages) otherwise.
+     */
+    public static WorkloadGenerator phases(int numPages, int workingSetSize, long phaseLength, double locality,
+            long length, long seed) {
+        checkPages(numPages);
+        if (workingSetSize <= 0 || workingSetSize > numPages || phaseLength <= 0) {
+            throw new IllegalArgumentException("Working set must fit in the pages and phases must be positive.");
+        }
+        if (!(locality >= 0 && locality <= 1)) {
+            throw new IllegalArgumentException("Locality must be between 0 and 1.");
+        }
+        // Compare against a 53-bit threshold so the locality test needs no floating point per reference
+        long localThreshold = (long) (locality * (1L << 53));
+        return new WorkloadGenerator(length, seed) {
+            private long untilShift; // References left in the current phase
+            private int base; // First page of the current working set
+
+            @Override
+            protected int generate() {
+                if (untilShift == 0) {
+                    base = nextRandomInt(numPages - workingSetSize + 1);
+                    untilShift = phaseLength;
+                }
+                untilShift--;
+                if ((nextRandomLong() >>> 11) < localThreshold) {
+                    return base + nextRandomInt(workingSetSize);
+                }
+                return nextRandomInt(numPages);
+            }
+        };
+    }
+
+    private static void checkPages(int numPages) {
+        if (numPages <= 0) {
+            throw new IllegalArgumentException("Number of pages must be positive.");
+        }
+    }
+
+    /**
+     * Rejection-inversion sampling of a bounded Zipf distribution, after the formulation used in
+     * Apache Commons RNG. Ranks run from 1 to numPages; the page returned is rank - 1.
+     */
+    private static final class ZipfGenerator extends WorkloadGenerator {
+        private final int numPages;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralNumPages;
+        private final double s;
+
+        ZipfGenerator(int numPages, double exponent, long length, long seed) {
+            super(length, seed);
+            this.numPages = numPages;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralNumPages = hIntegral(numPages + 0.5);
+            this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+        }
+
+        @Override
+        protected int generate() {
+            while (true) {
+                double u = hIntegralNumPages + nextRandomDouble() * (hIntegralX1 - hIntegralNumPages);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > numPages) {
+                    k = numPages;
+                }
+                // Most samples are accepted by the first, cheap test
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k - 1;
+                }
+            }
+        }
+
+        /** h(x) = 1 / x^exponent */
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        /** Antiderivative of h, written so it stays accurate as the exponent approaches 1. */
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1.0 - exponent);
+            if (t < -1.0) {
+                t = -1.0; // Guards against rounding just outside the domain
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        /** log(1 + x) / x, with a series near 0. */
+        private static double helper1(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        /** (exp(x) - 1) / x, with a series near 0. */
+        private static double helper2(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+        }
+    }
+
+    /**
+     * Creates a generator from command-line style arguments.
+     * @param args The kind followed by its parameters, as listed in the class description.
+     * @param length The number of references to produce.
+     */
+    public static WorkloadGenerator create(String[] args, long length) {
+        switch (args[0].toLowerCase()) {
+            case "uniform":
+                return uniform(Integer.parseInt(args[1]), length, seedArg(args, 2));
+            case "zipf":
+                return zipf(Integer.parseInt(args[1]), Double.parseDouble(args[2]), length, seedArg(args, 3));
+            case "scan":
+                return scan(args.length > 1 ? Integer.parseInt(args[1]) : 0, length);
+            case "loop":
+                return loop(Integer.parseInt(args[1]), length);
+            case "phases":
+                return phases(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]),
+                        Double.parseDouble(args[4]), length, seedArg(args, 5));
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + args[0]);
+        }
+    }
+
+    private static long seedArg(String[] args, int index) {
+        return args.length > index ? Long.parseLong(args[index]) : 1L;
+    }
+
+    /**
+     * Writes the workload as a space-separated trace, formatting digits by hand to keep up with the generator.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        int position = 0;
+        while (hasNext()) {
+            if (position > buffer.length - 12) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            int page = nextInt();
+            int end = position + (page == 0 ? 1 : (int) Math.log10(page) + 1);
+            for (int i = end - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + page % 10);
+                page /= 10;
+            }
+            position = end;
+            buffer[position++] = '\n';
+        }
+        out.write(buffer, 0, position);
+        out.flush();
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java WorkloadGenerator <uniform | zipf | scan | loop | phases> <length> [parameters...]");
+            System.exit(2);
+        }
+        try {
+            String[] kind = new String[args.length - 1];
+            kind[0] = args[0];
+            System.arraycopy(args, 2, kind, 1, args.length - 2);
+            WorkloadGenerator generator = create(kind, Long.parseLong(args[1]));
+            generator.writeTo(System.out);
+        } catch (Exception e) {
+            System.err.println("Generation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
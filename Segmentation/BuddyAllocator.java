@@ -0,0 +1,203 @@
+import java.util.*;
+
+// binary buddy allocator working inside power-of-two chunks taken from a heap's free space
+// a request is rounded up to a power of two, so up to half of its block can go unused. free blocks are kept
+// in one list per order (2^order units); a larger block is split in halves until it is the right size, and a
+// freed block merges with its buddy, the other half of the block it was split from, for as long as the buddy
+// is free too. both take at most one step per order, O(log n) in the chunk size. a chunk that merges back
+// whole is given back to the heap's free space
+public class BuddyAllocator implements Segmentation.BlockPool {
+    private final FreeSpace freeMemory;
+    private final int chunkSize;
+    private final Block[] lists = new Block[31]; // free blocks of each order
+    private final Map<Integer, Block> freeBlocks = new HashMap<>(); // free blocks by base, to find a buddy
+    private final TreeMap<Integer, Integer> chunks = new TreeMap<>(); // base to size of each chunk taken
+    private long freeSize;
+
+    // a free block, linked into the list for its order
+    private static class Block {
+        int base;
+        int order;
+        Block prev, next;
+
+        Block(int base, int order)
+        {
+            this.base = base;
+            this.order = order;
+        }
+    }
+
+    // chunkSize must be a power of two; requests larger than it get a chunk of their own
+    public BuddyAllocator(FreeSpace freeMemory, int chunkSize)
+    {
+        if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1)
+        {
+            throw new IllegalArgumentException("Buddy chunk size must be a power of two");
+        }
+        this.freeMemory = freeMemory;
+        this.chunkSize = chunkSize;
+    }
+
+    // the order of the smallest block that holds size units
+    private static int orderOf(int size)
+    {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    @Override
+    public int blockSize(int size)
+    {
+        return 1 << orderOf(size);
+    }
+
+    @Override
+    public int allocate(int size)
+    {
+        int order = orderOf(size);
+        if (size <= 0 || order >= lists.length)
+        {
+            return -1;
+        }
+
+        // the smallest free block at least as large as the request
+        int from = order;
+        while (from < lists.length && lists[from] == null)
+        {
+            from++;
+        }
+
+        // none left, so take a new chunk from the heap
+        if (from == lists.length)
+        {
+            int chunk = Math.max(chunkSize, 1 << order);
+            Segmentation.FreeMem slot = freeMemory.firstFit(chunk);
+            if (slot == null)
+            {
+                return -1;
+            }
+            int base = slot.base;
+            freeMemory.allocateFrom(slot, chunk);
+            chunks.put(base, chunk);
+            from = orderOf(chunk);
+            push(new Block(base, from));
+        }
+
+        // split it, keeping the lower half each time and freeing the upper half
+        Block block = lists[from];
+        unlink(block);
+        while (from > order)
+        {
+            from--;
+            push(new Block(block.base + (1 << from), from));
+        }
+        return block.base;
+    }
+
+    @Override
+    public void free(int base, int size)
+    {
+        int order = orderOf(size);
+        Map.Entry<Integer, Integer> chunk = chunks.floorEntry(base);
+        if (chunk == null || base >= chunk.getKey() + chunk.getValue())
+        {
+            throw new IllegalArgumentException("Block at " + base + " is not in a buddy chunk");
+        }
+        int chunkBase = chunk.getKey();
+        int chunkOrder = orderOf(chunk.getValue());
+
+        // merge with the buddy while it is free and whole
+        while (order < chunkOrder)
+        {
+            int buddy = chunkBase + ((base - chunkBase) ^ (1 << order));
+            Block other = freeBlocks.get(buddy);
+            if (other == null || other.order != order)
+            {
+                break;
+            }
+            unlink(other);
+            base = Math.min(base, buddy);
+            order++;
+        }
+
+        if (order == chunkOrder)
+        {
+            chunks.remove(chunkBase);
+            freeMemory.release(chunkBase, 1 << chunkOrder);
+        }
+        else
+        {
+            push(new Block(base, order));
+        }
+    }
+
+    private void push(Block block)
+    {
+        block.prev = null;
+        block.next = lists[block.order];
+        if (block.next != null)
+        {
+            block.next.prev = block;
+        }
+        lists[block.order] = block;
+        freeBlocks.put(block.base, block);
+        freeSize += 1 << block.order;
+    }
+
+    private void unlink(Block block)
+    {
+        if (block.prev == null)
+        {
+            lists[block.order] = block.next;
+        }
+        else
+        {
+            block.prev.next = block.next;
+        }
+        if (block.next != null)
+        {
+            block.next.prev = block.prev;
+        }
+        freeBlocks.remove(block.base);
+        freeSize -= 1 << block.order;
+    }
+
+    @Override
+    public long getFreeSize()
+    {
+        return freeSize;
+    }
+
+    @Override
+    public int getLargestFree()
+    {
+        for (int order = lists.length - 1; order >= 0; order--)
+        {
+            if (lists[order] != null)
+            {
+                return 1 << order;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public List<Segmentation.FreeMem> getFreeBlocks()
+    {
+        List<Segmentation.FreeMem> blocks = new ArrayList<>(freeBlocks.size());
+        for (Block block : freeBlocks.values())
+        {
+            blocks.add(new Segmentation.FreeMem(block.base, 1 << block.order));
+        }
+        return blocks;
+    }
+
+    // forgets every chunk, as after compaction has rebuilt the heap's free space
+    @Override
+    public void clear()
+    {
+        Arrays.fill(lists, null);
+        freeBlocks.clear();
+        chunks.clear();
+        freeSize = 0;
+    }
+}
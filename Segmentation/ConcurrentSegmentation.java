@@ -0,0 +1,272 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a heap that many threads can allocate from and free to at once
+// the addresses are split into stripes, each an independent Segmentation with its own lock, so threads
+// working in different stripes never wait for each other. each thread has a home stripe picked from its id
+// and only moves on to the other stripes when its home is busy or full: first it tries the rest without
+// waiting, then it waits its turn at each. a segment is freed in the stripe its address falls in.
+// a segment never spans two stripes, so the largest segment is one stripe in size
+// usage: java ConcurrentSegmentation <threads> <operationsPerThread> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit> [stripes] [stripeSize]
+public class ConcurrentSegmentation {
+    private final Segmentation[] stripes;
+    private final ReentrantLock[] locks;
+    private final int stripeSize;
+
+    public ConcurrentSegmentation(int stripeCount, int stripeSize)
+    {
+        if (stripeCount <= 0 || stripeSize <= 0 || (long) stripeCount * stripeSize > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Stripes must have a positive count and size and fit within int addresses");
+        }
+        this.stripeSize = stripeSize;
+        stripes = new Segmentation[stripeCount];
+        locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+        {
+            stripes[i] = new Segmentation(i * stripeSize, stripeSize);
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // allocates a segment with the given method, returning null if no stripe has room
+    public Segmentation.Segment createSegment(String name, int size, String method)
+    {
+        int home = (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes.length);
+
+        // without waiting, starting at home
+        for (int i = 0; i < stripes.length; i++)
+        {
+            int stripe = (home + i) % stripes.length;
+            if (locks[stripe].tryLock())
+            {
+                try
+                {
+                    Segmentation.Segment seg = stripes[stripe].createSegment(name, size, method);
+                    if (seg != null)
+                    {
+                        return seg;
+                    }
+                }
+                finally
+                {
+                    locks[stripe].unlock();
+                }
+            }
+        }
+
+        // every stripe was busy or full: wait for each in turn, as room may have been freed since
+        for (int i = 0; i < stripes.length; i++)
+        {
+            int stripe = (home + i) % stripes.length;
+            locks[stripe].lock();
+            try
+            {
+                Segmentation.Segment seg = stripes[stripe].createSegment(name, size, method);
+                if (seg != null)
+                {
+                    return seg;
+                }
+            }
+            finally
+            {
+                locks[stripe].unlock();
+            }
+        }
+        return null;
+    }
+
+    // frees a segment returned by createSegment, returning false if it was already freed
+    public boolean removeSegment(Segmentation.Segment seg)
+    {
+        int stripe = stripeOf(seg.base);
+        locks[stripe].lock();
+        try
+        {
+            return stripes[stripe].removeSegment(seg);
+        }
+        finally
+        {
+            locks[stripe].unlock();
+        }
+    }
+
+    // frees the segment with the name that Segmentation.removeSegment would take, in the first stripe holding one;
+    // prefer removeSegment(Segment), which goes straight to the right stripe
+    public boolean removeSegment(String name)
+    {
+        for (int stripe = 0; stripe < stripes.length; stripe++)
+        {
+            locks[stripe].lock();
+            try
+            {
+                if (stripes[stripe].removeSegment(name))
+                {
+                    return true;
+                }
+            }
+            finally
+            {
+                locks[stripe].unlock();
+            }
+        }
+        return false;
+    }
+
+    // compacts each stripe, one at a time
+    public void compactMemory()
+    {
+        for (int stripe = 0; stripe < stripes.length; stripe++)
+        {
+            locks[stripe].lock();
+            try
+            {
+                stripes[stripe].compactMemory();
+            }
+            finally
+            {
+                locks[stripe].unlock();
+            }
+        }
+    }
+
+    public int getSegmentCount()
+    {
+        int count = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++)
+        {
+            locks[stripe].lock();
+            try
+            {
+                count += stripes[stripe].segments.size();
+            }
+            finally
+            {
+                locks[stripe].unlock();
+            }
+        }
+        return count;
+    }
+
+    public int getFreeSlotCount()
+    {
+        int count = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++)
+        {
+            locks[stripe].lock();
+            try
+            {
+                count += stripes[stripe].freeMemory.size();
+            }
+            finally
+            {
+                locks[stripe].unlock();
+            }
+        }
+        return count;
+    }
+
+    public int getStripeCount()
+    {
+        return stripes.length;
+    }
+
+    public int getStripeSize()
+    {
+        return stripeSize;
+    }
+
+    private int stripeOf(int address)
+    {
+        int stripe = address / stripeSize;
+        if (address < 0 || stripe >= stripes.length)
+        {
+            throw new IllegalArgumentException("Address " + address + " is outside the heap");
+        }
+        return stripe;
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length < 3 || args.length > 5)
+        {
+            System.err.println("Usage: java ConcurrentSegmentation <threads> <operationsPerThread> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit> [stripes] [stripeSize]");
+            System.exit(2);
+        }
+        try
+        {
+            int threads = Integer.parseInt(args[0]);
+            long operations = Long.parseLong(args[1]);
+            String method = args[2];
+            int stripeCount = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, threads);
+            int stripeSize = args.length > 4 ? Integer.parseInt(args[4]) : Segmentation.MEMORY_SIZE * 20;
+            ConcurrentSegmentation heap = new ConcurrentSegmentation(stripeCount, stripeSize);
+
+            // each thread runs its own workload, keeping its live segments by workload id so it can free them
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<long[]>> results = new ArrayList<>();
+            long startTime = System.nanoTime();
+            for (int t = 0; t < threads; t++)
+            {
+                long seed = t + 1;
+                results.add(pool.submit(() -> {
+                    SegmentWorkload workload = new SegmentWorkload(operations, SegmentWorkload.SizeDistribution.UNIFORM, 10, 500, 0.5, seed);
+                    Segmentation.Segment[] live = new Segmentation.Segment[64];
+                    long allocated = 0;
+                    long failed = 0;
+                    while (workload.next())
+                    {
+                        int id = workload.getSegmentId();
+                        if (!workload.isAllocation())
+                        {
+                            heap.removeSegment(live[id]);
+                            live[id] = null;
+                        }
+                        else
+                        {
+                            Segmentation.Segment seg = heap.createSegment(workload.getName(), workload.getSize(), method);
+                            if (seg == null)
+                            {
+                                failed++;
+                                workload.cancelLast();
+                                continue;
+                            }
+                            if (id >= live.length)
+                            {
+                                live = Arrays.copyOf(live, Math.max(id + 1, live.length * 2));
+                            }
+                            live[id] = seg;
+                            allocated++;
+                        }
+                    }
+                    return new long[] { allocated, failed };
+                }));
+            }
+            long allocated = 0;
+            long failed = 0;
+            for (Future<long[]> result : results)
+            {
+                long[] counts = result.get();
+                allocated += counts[0];
+                failed += counts[1];
+            }
+            long elapsed = System.nanoTime() - startTime;
+            pool.shutdown();
+
+            System.out.printf("%s, %d threads, %d stripes of %d: %d allocated, %d failed, %d live, %d free blocks%n", method,
+                    threads, stripeCount, stripeSize, allocated, failed, heap.getSegmentCount(), heap.getFreeSlotCount());
+            System.out.printf("%.0f operations/s%n", threads * (double) operations / (elapsed / 1e9));
+        }
+        catch (ExecutionException e)
+        {
+            System.err.println("Simulation failed: " + e.getCause().getMessage());
+            System.exit(1);
+        }
+        catch (Exception e)
+        {
+            System.err.println("Simulation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,510 @@
+import java.util.*;
+
+// the free memory slots, indexed so every fit method and neighbor lookup takes O(log n)
+// slots are kept in two treaps that share the FreeMem objects as nodes, so indexing allocates nothing:
+//   by base  ordered by base address, each node also holding the largest size in its subtree,
+//            which lets first fit walk straight down to the lowest slot that is big enough
+//   by size  ordered by size and then base, for best fit and worst fit
+// ties between slots of the same size go to the lowest base, as when the list was scanned in base order
+// a slot's base and size must only change through this class, or the trees fall out of order
+public class FreeSpace implements Iterable<Segmentation.FreeMem> {
+    private Segmentation.FreeMem byBase;
+    private Segmentation.FreeMem bySize;
+    private int count;
+    private long total; // sum of the slot sizes
+    private int seed = 0x2545F491;
+
+    public int size()
+    {
+        return count;
+    }
+
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    // free units across all slots
+    public long totalSize()
+    {
+        return total;
+    }
+
+    // size of the largest slot, 0 if there are none
+    public int largest()
+    {
+        return byBase == null ? 0 : byBase.maxSize;
+    }
+
+    public void clear()
+    {
+        byBase = null;
+        bySize = null;
+        count = 0;
+        total = 0;
+    }
+
+    // adds a free slot; it must not overlap a slot already here
+    public void add(Segmentation.FreeMem slot)
+    {
+        if (slot.size <= 0)
+        {
+            throw new IllegalArgumentException("Free slot must have a positive size");
+        }
+        if (find(slot.base) != null)
+        {
+            throw new IllegalArgumentException("Free slot at " + slot.base + " already exists");
+        }
+        // xorshift, so the trees stay balanced whatever order slots arrive in
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        slot.priority = seed;
+        slot.left = slot.right = slot.smaller = slot.larger = null;
+        slot.maxSize = slot.size;
+
+        byBase = insertByBase(byBase, slot);
+        bySize = insertBySize(bySize, slot);
+        count++;
+        total += slot.size;
+    }
+
+    // removes a slot that is in the index
+    public void remove(Segmentation.FreeMem slot)
+    {
+        byBase = removeByBase(byBase, slot);
+        bySize = removeBySize(bySize, slot);
+        slot.left = slot.right = slot.smaller = slot.larger = null;
+        count--;
+        total -= slot.size;
+    }
+
+    // moves or resizes a slot in place of changing its fields directly
+    public void update(Segmentation.FreeMem slot, int base, int size)
+    {
+        remove(slot);
+        slot.base = base;
+        slot.size = size;
+        add(slot);
+    }
+
+    // takes size units from the start of a slot, removing the slot once it is used up
+    public void allocateFrom(Segmentation.FreeMem slot, int size)
+    {
+        if (slot.size == size)
+        {
+            remove(slot);
+        }
+        else
+        {
+            update(slot, slot.base + size, slot.size - size);
+        }
+    }
+
+    // frees a range, joining it to the slots that end where it starts and start where it ends
+    public void release(int base, int size)
+    {
+        Segmentation.FreeMem before = floor(base);
+        if (before != null && before.base + before.size != base)
+        {
+            before = null;
+        }
+        Segmentation.FreeMem after = find(base + size);
+
+        if (before != null && after != null)
+        {
+            remove(after);
+            update(before, before.base, before.size + size + after.size);
+        }
+        else if (before != null)
+        {
+            update(before, before.base, before.size + size);
+        }
+        else if (after != null)
+        {
+            update(after, base, size + after.size);
+        }
+        else
+        {
+            add(new Segmentation.FreeMem(base, size));
+        }
+    }
+
+    // the slot with the lowest base that can hold size units, or null
+    public Segmentation.FreeMem firstFit(int size)
+    {
+        return firstFitBelow(byBase, size);
+    }
+
+    // the slot with the lowest base at or above address that can hold size units, or null
+    public Segmentation.FreeMem firstFitFrom(int address, int size)
+    {
+        return firstFitFrom(byBase, address, size);
+    }
+
+    private static Segmentation.FreeMem firstFitFrom(Segmentation.FreeMem node, int address, int size)
+    {
+        while (node != null && node.maxSize >= size)
+        {
+            if (node.base < address)
+            {
+                // this slot and everything left of it lie below address
+                node = node.right;
+            }
+            else
+            {
+                Segmentation.FreeMem found = firstFitFrom(node.left, address, size);
+                if (found != null)
+                {
+                    return found;
+                }
+                if (node.size >= size)
+                {
+                    return node;
+                }
+                // everything right of here is above address, so the plain first fit walk applies
+                return firstFitBelow(node.right, size);
+            }
+        }
+        return null;
+    }
+
+    // the slot with the lowest base in a subtree that can hold size units, or null
+    private static Segmentation.FreeMem firstFitBelow(Segmentation.FreeMem node, int size)
+    {
+        if (node == null || node.maxSize < size)
+        {
+            return null;
+        }
+        while (true)
+        {
+            if (node.left != null && node.left.maxSize >= size)
+            {
+                node = node.left;
+            }
+            else if (node.size >= size)
+            {
+                return node;
+            }
+            else
+            {
+                node = node.right;
+            }
+        }
+    }
+
+    // the smallest slot that can hold size units, or null
+    public Segmentation.FreeMem bestFit(int size)
+    {
+        return ceilingBySize(size, Integer.MIN_VALUE);
+    }
+
+    // the largest slot, or null if even that cannot hold size units
+    public Segmentation.FreeMem worstFit(int size)
+    {
+        Segmentation.FreeMem node = bySize;
+        if (node == null)
+        {
+            return null;
+        }
+        while (node.larger != null)
+        {
+            node = node.larger;
+        }
+        if (node.size < size)
+        {
+            return null;
+        }
+        return ceilingBySize(node.size, Integer.MIN_VALUE); // the lowest base among the largest
+    }
+
+    // the slot starting exactly at base, or null
+    public Segmentation.FreeMem find(int base)
+    {
+        Segmentation.FreeMem node = byBase;
+        while (node != null && node.base != base)
+        {
+            node = base < node.base ? node.left : node.right;
+        }
+        return node;
+    }
+
+    // the slot with the highest base at or below address, or null
+    public Segmentation.FreeMem floor(int address)
+    {
+        Segmentation.FreeMem node = byBase;
+        Segmentation.FreeMem found = null;
+        while (node != null)
+        {
+            if (node.base <= address)
+            {
+                found = node;
+                node = node.right;
+            }
+            else
+            {
+                node = node.left;
+            }
+        }
+        return found;
+    }
+
+    // the slot with the lowest base above address, or null
+    public Segmentation.FreeMem higher(int address)
+    {
+        Segmentation.FreeMem node = byBase;
+        Segmentation.FreeMem found = null;
+        while (node != null)
+        {
+            if (node.base > address)
+            {
+                found = node;
+                node = node.left;
+            }
+            else
+            {
+                node = node.right;
+            }
+        }
+        return found;
+    }
+
+    // the slot with the smallest (size, base) at or above the given pair
+    private Segmentation.FreeMem ceilingBySize(int size, int base)
+    {
+        Segmentation.FreeMem node = bySize;
+        Segmentation.FreeMem found = null;
+        while (node != null)
+        {
+            if (compareBySize(node, size, base) >= 0)
+            {
+                found = node;
+                node = node.smaller;
+            }
+            else
+            {
+                node = node.larger;
+            }
+        }
+        return found;
+    }
+
+    // visits the slots in base order
+    @Override
+    public Iterator<Segmentation.FreeMem> iterator()
+    {
+        return new Iterator<Segmentation.FreeMem>() {
+            private final ArrayDeque<Segmentation.FreeMem> path = new ArrayDeque<>();
+
+            {
+                descendLeft(byBase);
+            }
+
+            private void descendLeft(Segmentation.FreeMem node)
+            {
+                while (node != null)
+                {
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Segmentation.FreeMem next()
+            {
+                if (path.isEmpty())
+                {
+                    throw new NoSuchElementException();
+                }
+                Segmentation.FreeMem node = path.pop();
+                descendLeft(node.right);
+                return node;
+            }
+        };
+    }
+
+    // --- base-ordered treap ---
+
+    private static void pull(Segmentation.FreeMem node)
+    {
+        int max = node.size;
+        if (node.left != null && node.left.maxSize > max)
+        {
+            max = node.left.maxSize;
+        }
+        if (node.right != null && node.right.maxSize > max)
+        {
+            max = node.right.maxSize;
+        }
+        node.maxSize = max;
+    }
+
+    // inserts by base, then rotates the slot up until its priority is below its parent's
+    private static Segmentation.FreeMem insertByBase(Segmentation.FreeMem node, Segmentation.FreeMem slot)
+    {
+        if (node == null)
+        {
+            return slot;
+        }
+        if (slot.base < node.base)
+        {
+            node.left = insertByBase(node.left, slot);
+            if (node.left.priority > node.priority)
+            {
+                Segmentation.FreeMem top = node.left;
+                node.left = top.right;
+                top.right = node;
+                pull(node);
+                pull(top);
+                return top;
+            }
+        }
+        else
+        {
+            node.right = insertByBase(node.right, slot);
+            if (node.right.priority > node.priority)
+            {
+                Segmentation.FreeMem top = node.right;
+                node.right = top.left;
+                top.left = node;
+                pull(node);
+                pull(top);
+                return top;
+            }
+        }
+        pull(node);
+        return node;
+    }
+
+    // joins two trees where every base in low is below every base in high
+    private static Segmentation.FreeMem mergeByBase(Segmentation.FreeMem low, Segmentation.FreeMem high)
+    {
+        if (low == null)
+        {
+            return high;
+        }
+        if (high == null)
+        {
+            return low;
+        }
+        if (low.priority > high.priority)
+        {
+            low.right = mergeByBase(low.right, high);
+            pull(low);
+            return low;
+        }
+        high.left = mergeByBase(low, high.left);
+        pull(high);
+        return high;
+    }
+
+    private static Segmentation.FreeMem removeByBase(Segmentation.FreeMem node, Segmentation.FreeMem slot)
+    {
+        if (node == null)
+        {
+            throw new IllegalArgumentException("Free slot at " + slot.base + " is not in the index");
+        }
+        if (node == slot)
+        {
+            return mergeByBase(node.left, node.right);
+        }
+        if (slot.base < node.base)
+        {
+            node.left = removeByBase(node.left, slot);
+        }
+        else
+        {
+            node.right = removeByBase(node.right, slot);
+        }
+        pull(node);
+        return node;
+    }
+
+    // --- size-ordered treap ---
+
+    private static int compareBySize(Segmentation.FreeMem node, int size, int base)
+    {
+        if (node.size != size)
+        {
+            return node.size < size ? -1 : 1;
+        }
+        return Integer.compare(node.base, base);
+    }
+
+    private static Segmentation.FreeMem insertBySize(Segmentation.FreeMem node, Segmentation.FreeMem slot)
+    {
+        if (node == null)
+        {
+            return slot;
+        }
+        if (compareBySize(node, slot.size, slot.base) > 0)
+        {
+            node.smaller = insertBySize(node.smaller, slot);
+            if (node.smaller.priority > node.priority)
+            {
+                Segmentation.FreeMem top = node.smaller;
+                node.smaller = top.larger;
+                top.larger = node;
+                return top;
+            }
+        }
+        else
+        {
+            node.larger = insertBySize(node.larger, slot);
+            if (node.larger.priority > node.priority)
+            {
+                Segmentation.FreeMem top = node.larger;
+                node.larger = top.smaller;
+                top.smaller = node;
+                return top;
+            }
+        }
+        return node;
+    }
+
+    private static Segmentation.FreeMem mergeBySize(Segmentation.FreeMem low, Segmentation.FreeMem high)
+    {
+        if (low == null)
+        {
+            return high;
+        }
+        if (high == null)
+        {
+            return low;
+        }
+        if (low.priority > high.priority)
+        {
+            low.larger = mergeBySize(low.larger, high);
+            return low;
+        }
+        high.smaller = mergeBySize(low, high.smaller);
+        return high;
+    }
+
+    private static Segmentation.FreeMem removeBySize(Segmentation.FreeMem node, Segmentation.FreeMem slot)
+    {
+        if (node == null)
+        {
+            throw new IllegalArgumentException("Free slot at " + slot.base + " is not in the index");
+        }
+        if (node == slot)
+        {
+            return mergeBySize(node.smaller, node.larger);
+        }
+        if (compareBySize(node, slot.size, slot.base) > 0)
+        {
+            node.smaller = removeBySize(node.smaller, slot);
+        }
+        else
+        {
+            node.larger = removeBySize(node.larger, slot);
+        }
+        return node;
+    }
+}
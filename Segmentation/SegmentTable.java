@@ -0,0 +1,231 @@
+import java.util.*;
+
+// the segment table: turns a logical address, a segment id and an offset, into a physical address
+// each live segment gets an id when it is created and keeps it until it is removed, when the id is freed for
+// reuse. bases and limits are kept in primitive arrays indexed by id, so a lookup is two array reads with no
+// boxing or hashing, and a small direct-mapped cache in front keeps the entries of the segments a trace is
+// using close together, however large the table grows. an offset outside the segment, or an id with no
+// segment, is a segmentation fault, returned as FAULT rather than thrown so a replay can count them cheaply
+// usage: java SegmentTable <segments> <translations> [faultRate] [seed]
+public class SegmentTable {
+    static final int FAULT = -1; // the result of a translation that faults; physical addresses are never negative
+
+    private static final int CACHE_SIZE = 64; // entries, a power of two so an id picks its entry with a mask
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+    private int[] bases = new int[16];
+    private int[] limits = new int[16]; // 0 for an id with no segment, so every offset faults
+    private int used; // ids handed out so far, live or freed
+    private int[] freeIds = new int[16];
+    private int freeCount;
+
+    // each entry is 4 ints, id, base and limit plus one unused, so an entry never straddles two cache lines
+    private final int[] cache = new int[CACHE_SIZE * 4];
+    private long cacheMisses;
+
+    public SegmentTable()
+    {
+        for (int slot = 0; slot < CACHE_SIZE; slot++)
+        {
+            cache[slot << 2] = -1; // no id is negative, so nothing hits an empty entry
+        }
+    }
+
+    // adds a segment and returns its id, reusing the id of a removed segment if there is one
+    public int add(int base, int limit)
+    {
+        if (base < 0 || limit <= 0)
+        {
+            throw new IllegalArgumentException("Segment must have a non-negative base and a positive limit");
+        }
+        int id;
+        if (freeCount > 0)
+        {
+            id = freeIds[--freeCount];
+        }
+        else
+        {
+            if (used == bases.length)
+            {
+                bases = Arrays.copyOf(bases, used * 2);
+                limits = Arrays.copyOf(limits, used * 2);
+            }
+            id = used++;
+        }
+        bases[id] = base;
+        limits[id] = limit;
+        invalidate(id); // a translation of the freed id may have cached it since
+        return id;
+    }
+
+    // removes a segment; its id faults until it is handed out again
+    public void remove(int id)
+    {
+        checkLive(id);
+        limits[id] = 0;
+        invalidate(id);
+        if (freeCount == freeIds.length)
+        {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    // moves a segment to a new base, as compaction does
+    public void move(int id, int base)
+    {
+        checkLive(id);
+        bases[id] = base;
+        invalidate(id);
+    }
+
+    private void checkLive(int id)
+    {
+        if (id < 0 || id >= used || limits[id] == 0)
+        {
+            throw new IllegalArgumentException("No segment has id " + id);
+        }
+    }
+
+    // drops a changed entry from the cache, so the next translation reads the table
+    private void invalidate(int id)
+    {
+        int entry = (id & CACHE_MASK) << 2;
+        if (cache[entry] == id)
+        {
+            cache[entry] = -1;
+            cache[entry + 2] = 0; // so an id of -1 faults on this entry too
+        }
+    }
+
+    // the physical address of an offset into a segment, or FAULT if the offset is outside it or there is no such segment
+    public int translate(int segId, int offset)
+    {
+        int entry = (segId & CACHE_MASK) << 2;
+        int base;
+        int limit;
+        if (cache[entry] == segId)
+        {
+            base = cache[entry + 1];
+            limit = cache[entry + 2];
+        }
+        else
+        {
+            if (segId < 0 || segId >= used)
+            {
+                return FAULT;
+            }
+            cacheMisses++;
+            base = bases[segId];
+            limit = limits[segId];
+            cache[entry] = segId;
+            cache[entry + 1] = base;
+            cache[entry + 2] = limit;
+        }
+        // compared unsigned, so a negative offset is out of bounds too
+        return Integer.compareUnsigned(offset, limit) < 0 ? base + offset : FAULT;
+    }
+
+    // translates count logical addresses at once, writing FAULT for each that faults, and returns how many faulted
+    public int translate(int[] segIds, int[] offsets, int[] out, int count)
+    {
+        if (count > segIds.length || count > offsets.length || count > out.length)
+        {
+            throw new IllegalArgumentException("Count is larger than the arrays");
+        }
+        int faults = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int physical = translate(segIds[i], offsets[i]);
+            out[i] = physical;
+            faults += physical >>> 31; // 1 for FAULT, 0 for any address
+        }
+        return faults;
+    }
+
+    // translates every logical address in the arrays
+    public int translate(int[] segIds, int[] offsets, int[] out)
+    {
+        return translate(segIds, offsets, out, segIds.length);
+    }
+
+    // the number of live segments
+    public int size()
+    {
+        return used - freeCount;
+    }
+
+    public long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length < 2 || args.length > 4)
+        {
+            System.err.println("Usage: java SegmentTable <segments> <translations> [faultRate] [seed]");
+            System.exit(2);
+        }
+        try
+        {
+            int segmentCount = Integer.parseInt(args[0]);
+            long translations = Long.parseLong(args[1]);
+            double faultRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+            if (segmentCount <= 0 || translations < 0 || faultRate < 0 || faultRate > 1)
+            {
+                throw new IllegalArgumentException("Segments must be positive, translations non-negative and the fault rate from 0 to 1");
+            }
+
+            // fills a heap with segments of 16 to 1039 units through the usual allocator
+            Random random = new Random(seed);
+            Segmentation segmentation = new Segmentation((int) Math.min(Integer.MAX_VALUE, segmentCount * 1040L));
+            List<Segmentation.Segment> live = new ArrayList<>();
+            for (int i = 0; i < segmentCount; i++)
+            {
+                Segmentation.Segment seg = segmentation.createSegment("S" + i, 16 + random.nextInt(1024), "First-Fit");
+                if (seg != null)
+                {
+                    live.add(seg);
+                }
+            }
+
+            // a trace that stays within a few segments at a time, with faultRate of the offsets past the limit
+            int length = 1 << 16;
+            int[] segIds = new int[length];
+            int[] offsets = new int[length];
+            int[] out = new int[length];
+            int home = 0;
+            for (int i = 0; i < length; i++)
+            {
+                if (random.nextInt(64) == 0)
+                {
+                    home = random.nextInt(live.size());
+                }
+                Segmentation.Segment seg = live.get(Math.min(live.size() - 1, home + random.nextInt(4)));
+                segIds[i] = seg.id;
+                offsets[i] = random.nextDouble() < faultRate ? seg.limit + random.nextInt(16) : random.nextInt(seg.limit);
+            }
+
+            SegmentTable table = segmentation.segT;
+            long faults = 0;
+            long startTime = System.nanoTime();
+            for (long done = 0; done < translations; done += length)
+            {
+                int count = (int) Math.min(length, translations - done);
+                faults += table.translate(segIds, offsets, out, count);
+            }
+            long elapsed = System.nanoTime() - startTime;
+
+            System.out.printf("%d segments, %d translations: %d faults, %d cache misses%n", live.size(), translations, faults,
+                    table.getCacheMisses());
+            System.out.printf("%.0f translations/s%n", translations / (elapsed / 1e9));
+        }
+        catch (Exception e)
+        {
+            System.err.println("Translation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
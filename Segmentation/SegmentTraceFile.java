@@ -0,0 +1,340 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+// binary trace of segment alloc/free events, read back through a memory mapping
+// the layout matches the binary page traces of the clock simulator, with magic "SGTR":
+//   header  int magic, int version, int records per block, int reserved, long record count, long index offset (little-endian)
+//   blocks  per event a varint of the zigzag difference from the previous segment id, shifted left one bit with
+//           bit 0 set for an allocation, then for an allocation a varint of the size. each block starts again from id 0
+//   index   one long per block with the file offset where it starts
+// usage: java SegmentTraceFile record <traceFile> <operations> [fixed | uniform | exponential] [minSize] [maxSize] [allocProbability] [seed]
+//        java SegmentTraceFile replay <traceFile> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit>
+public class SegmentTraceFile implements Closeable {
+    static final int MAGIC = 'S' | 'G' << 8 | 'T' << 16 | 'R' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BLOCK_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int blockSize;
+    private final long recordCount;
+    private final long[] blockOffsets;
+    private long position;
+    private int leftInBlock;
+    private int previousId;
+
+    // the current event
+    private boolean allocation;
+    private int segmentId;
+    private int size;
+
+    // opens a trace and maps its event blocks
+    public SegmentTraceFile(String path) throws IOException
+    {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+            {
+                throw new IOException("Not a segment trace: " + path);
+            }
+            blockSize = header.getInt(8);
+            recordCount = header.getLong(16);
+            long indexOffset = header.getLong(24);
+            if (blockSize <= 0 || recordCount < 0 || indexOffset < HEADER_SIZE
+                    || indexOffset + (recordCount + blockSize - 1) / blockSize * Long.BYTES > channel.size())
+            {
+                throw new IOException("Segment trace is truncated or was not closed: " + path);
+            }
+            if (indexOffset - HEADER_SIZE > Integer.MAX_VALUE)
+            {
+                throw new IOException("Segment trace is too large to map at once: " + path);
+            }
+
+            blockOffsets = new long[(int) ((recordCount + blockSize - 1) / blockSize)];
+            ByteBuffer index = ByteBuffer.allocate(blockOffsets.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(index, indexOffset);
+            index.asLongBuffer().get(blockOffsets);
+
+            data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, indexOffset - HEADER_SIZE);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readFully(ByteBuffer dest, long offset) throws IOException
+    {
+        while (dest.hasRemaining())
+        {
+            if (channel.read(dest, offset + dest.position()) < 0)
+            {
+                throw new IOException("Segment trace is truncated.");
+            }
+        }
+        dest.flip();
+    }
+
+    // advances to the next event, returning false at the end of the trace
+    public boolean next()
+    {
+        if (position == recordCount)
+        {
+            return false;
+        }
+        if (leftInBlock == 0)
+        {
+            enterBlock((int) (position / blockSize));
+        }
+        long code = readVarLong(data);
+        long zigzag = code >>> 1;
+        previousId += (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        segmentId = previousId;
+        allocation = (code & 1) != 0;
+        size = allocation ? (int) readVarLong(data) : 0;
+        leftInBlock--;
+        position++;
+        return true;
+    }
+
+    // moves to an event so the next call to next() reads it
+    public void seek(long record)
+    {
+        if (record < 0 || record > recordCount)
+        {
+            throw new IndexOutOfBoundsException("Record " + record + " is outside the trace.");
+        }
+        leftInBlock = 0;
+        position = record - record % blockSize;
+        while (position < record)
+        {
+            next();
+        }
+    }
+
+    private void enterBlock(int block)
+    {
+        data.position((int) (blockOffsets[block] - HEADER_SIZE));
+        leftInBlock = (int) Math.min(blockSize, recordCount - (long) block * blockSize);
+        previousId = 0;
+    }
+
+    private static long readVarLong(ByteBuffer in)
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public boolean isAllocation()
+    {
+        return allocation;
+    }
+
+    public int getSegmentId()
+    {
+        return segmentId;
+    }
+
+    // the segment name used with Segmentation, built only when asked for
+    public String getName()
+    {
+        return "S" + segmentId;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public long getRecordCount()
+    {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    // writes events into a new segment trace; the index and header are written on close
+    static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushedBytes;
+        private long[] blockOffsets = new long[64];
+        private int blockCount;
+        private int leftInBlock;
+        private int previousId;
+        private long recordCount;
+
+        Writer(String path) throws IOException
+        {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.position(HEADER_SIZE);
+        }
+
+        // appends one event; size is ignored for a free
+        void write(boolean allocation, int segmentId, int size) throws IOException
+        {
+            if (leftInBlock == 0)
+            {
+                if (blockCount == blockOffsets.length)
+                {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                }
+                blockOffsets[blockCount++] = flushedBytes + buffer.position();
+                leftInBlock = BLOCK_SIZE;
+                previousId = 0;
+            }
+            if (buffer.remaining() < 20)
+            {
+                flush();
+            }
+            long delta = (long) segmentId - previousId;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            writeVarLong(zigzag << 1 | (allocation ? 1 : 0));
+            if (allocation)
+            {
+                writeVarLong(size);
+            }
+            previousId = segmentId;
+            leftInBlock--;
+            recordCount++;
+        }
+
+        private void writeVarLong(long value)
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                buffer.put((byte) (value | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void flush() throws IOException
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                flushedBytes += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                long indexOffset = flushedBytes + buffer.position();
+                for (int i = 0; i < blockCount; i++)
+                {
+                    if (buffer.remaining() < Long.BYTES)
+                    {
+                        flush();
+                    }
+                    buffer.putLong(blockOffsets[i]);
+                }
+                flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK_SIZE).putInt(0);
+                header.putLong(recordCount).putLong(indexOffset);
+                header.flip();
+                long offset = 0;
+                while (header.hasRemaining())
+                {
+                    offset += channel.write(header, offset);
+                }
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        try
+        {
+            if (args.length >= 3 && args[0].equals("record"))
+            {
+                // saves a generated workload so the same events can be replayed against every allocation method
+                SegmentWorkload.SizeDistribution distribution = args.length > 3 ? SegmentWorkload.SizeDistribution.valueOf(args[3].toUpperCase()) : SegmentWorkload.SizeDistribution.UNIFORM;
+                int minSize = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+                int maxSize = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+                double allocProbability = args.length > 6 ? Double.parseDouble(args[6]) : 0.6;
+                long seed = args.length > 7 ? Long.parseLong(args[7]) : 1L;
+                SegmentWorkload workload = new SegmentWorkload(Long.parseLong(args[2]), distribution, minSize, maxSize, allocProbability, seed);
+                try (Writer writer = new Writer(args[1]))
+                {
+                    while (workload.next())
+                    {
+                        writer.write(workload.isAllocation(), workload.getSegmentId(), workload.getSize());
+                    }
+                }
+            }
+            else if (args.length == 3 && args[0].equals("replay"))
+            {
+                Segmentation segmentation = new Segmentation();
+                long allocated = 0;
+                long failed = 0;
+                long freed = 0;
+                try (SegmentTraceFile trace = new SegmentTraceFile(args[1]))
+                {
+                    while (trace.next())
+                    {
+                        if (!trace.isAllocation())
+                        {
+                            segmentation.removeSegment(trace.getName());
+                            freed++;
+                        }
+                        else if (segmentation.createSegment(trace.getName(), trace.getSize(), args[2]) != null)
+                        {
+                            allocated++;
+                        }
+                        else
+                        {
+                            failed++;
+                        }
+                    }
+                }
+                System.out.printf("%s: %d allocated, %d failed, %d freed, %d free blocks left%n", args[2], allocated,
+                        failed, freed, segmentation.freeMemory.size());
+                System.out.printf("Fragmentation: %d units internal, %.4f external%n", segmentation.getInternalFragmentation(),
+                        segmentation.getExternalFragmentation());
+            }
+            else
+            {
+                System.err.println("Usage: java SegmentTraceFile record <traceFile> <operations> [fixed | uniform | exponential] [minSize] [maxSize] [allocProbability] [seed]");
+                System.err.println("       java SegmentTraceFile replay <traceFile> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit>");
+                System.exit(2);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.println("Segment trace failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
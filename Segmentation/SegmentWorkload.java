@@ -0,0 +1,208 @@
+import java.util.*;
+
+// streams a random mix of segment allocations and frees, one operation at a time, to drive Segmentation
+// usage: java SegmentWorkload <operations> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit> [fixed | uniform | exponential] [minSize] [maxSize] [allocProbability] [seed]
+public class SegmentWorkload {
+
+    // how segment sizes are drawn
+    enum SizeDistribution {
+        FIXED,       // always minSize
+        UNIFORM,     // evenly between minSize and maxSize
+        EXPONENTIAL  // minSize plus an exponential tail with mean (maxSize - minSize) / 4, capped at maxSize
+    }
+
+    private final SizeDistribution distribution;
+    private final int minSize;
+    private final int maxSize;
+    private final long allocThreshold;
+    private long remaining;
+    private long seed;
+
+    // ids of segments allocated and not yet freed
+    private int[] live = new int[64];
+    private int liveCount;
+    private int nextId;
+
+    // the current operation
+    private boolean allocation;
+    private int segmentId;
+    private int size;
+
+    public SegmentWorkload(long operations, SizeDistribution distribution, int minSize, int maxSize, double allocProbability, long seed)
+    {
+        if (operations < 0 || minSize <= 0 || maxSize < minSize)
+        {
+            throw new IllegalArgumentException("Operations cannot be negative and sizes must satisfy 0 < min <= max.");
+        }
+        if (!(allocProbability > 0 && allocProbability <= 1))
+        {
+            throw new IllegalArgumentException("Allocation probability must be above 0 and at most 1.");
+        }
+        this.remaining = operations;
+        this.distribution = distribution;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        // compare raw 53-bit random numbers against this so picking the operation needs no floating point
+        this.allocThreshold = (long) (allocProbability * (1L << 53));
+        this.seed = seed;
+    }
+
+    // advances to the next operation, returning false once the workload is exhausted
+    public boolean next()
+    {
+        if (remaining == 0)
+        {
+            return false;
+        }
+        remaining--;
+
+        // nothing can be freed while no segment is live
+        allocation = liveCount == 0 || (nextRandomLong() >>> 11) < allocThreshold;
+        if (allocation)
+        {
+            segmentId = nextId++;
+            size = nextSize();
+            if (liveCount == live.length)
+            {
+                live = Arrays.copyOf(live, liveCount * 2);
+            }
+            live[liveCount++] = segmentId;
+        }
+        else
+        {
+            // free a random live segment, filling its slot with the last one
+            int slot = nextRandomInt(liveCount);
+            segmentId = live[slot];
+            live[slot] = live[--liveCount];
+            size = 0;
+        }
+        return true;
+    }
+
+    // call after an allocation that did not fit, so the segment is never chosen to be freed
+    public void cancelLast()
+    {
+        if (allocation && liveCount > 0 && live[liveCount - 1] == segmentId)
+        {
+            liveCount--;
+        }
+    }
+
+    public boolean isAllocation()
+    {
+        return allocation;
+    }
+
+    public int getSegmentId()
+    {
+        return segmentId;
+    }
+
+    // the segment name used with Segmentation, built only when asked for
+    public String getName()
+    {
+        return "S" + segmentId;
+    }
+
+    // size of the segment being allocated, 0 for a free
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getLiveCount()
+    {
+        return liveCount;
+    }
+
+    private int nextSize()
+    {
+        switch (distribution)
+        {
+            case FIXED:
+                return minSize;
+            case UNIFORM:
+                return minSize + nextRandomInt(maxSize - minSize + 1);
+            case EXPONENTIAL:
+                double mean = (maxSize - minSize) / 4.0;
+                double u = (nextRandomLong() >>> 11) * 0x1.0p-53;
+                return (int) Math.min(maxSize, minSize + (long) (-mean * Math.log(1.0 - u)));
+            default:
+                throw new IllegalArgumentException("Invalid size distribution");
+        }
+    }
+
+    // SplitMix64, so the same seed always gives the same workload
+    private long nextRandomLong()
+    {
+        long z = (seed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int nextRandomInt(int bound)
+    {
+        return (int) (((nextRandomLong() >>> 32) * bound) >>> 32);
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length < 2 || args.length > 7)
+        {
+            System.err.println("Usage: java SegmentWorkload <operations> <First-Fit | Next-Fit | Best-Fit | Worst-Fit | Buddy | Segregated-Fit> [fixed | uniform | exponential] [minSize] [maxSize] [allocProbability] [seed]");
+            System.exit(2);
+        }
+        try
+        {
+            long operations = Long.parseLong(args[0]);
+            String method = args[1];
+            SizeDistribution distribution = args.length > 2 ? SizeDistribution.valueOf(args[2].toUpperCase()) : SizeDistribution.UNIFORM;
+            int minSize = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+            int maxSize = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+            double allocProbability = args.length > 5 ? Double.parseDouble(args[5]) : 0.6;
+            long seed = args.length > 6 ? Long.parseLong(args[6]) : 1L;
+
+            SegmentWorkload workload = new SegmentWorkload(operations, distribution, minSize, maxSize, allocProbability, seed);
+            Segmentation segmentation = new Segmentation();
+
+            long allocated = 0;
+            long failed = 0;
+            long freed = 0;
+            while (workload.next())
+            {
+                if (workload.isAllocation())
+                {
+                    if (segmentation.createSegment(workload.getName(), workload.getSize(), method) != null)
+                    {
+                        allocated++;
+                    }
+                    else
+                    {
+                        failed++;
+                        workload.cancelLast();
+                    }
+                }
+                else
+                {
+                    segmentation.removeSegment(workload.getName());
+                    freed++;
+                }
+            }
+
+            // sums up how fragmented the free memory ended up
+            System.out.printf("%s, %s sizes %d-%d: %d allocated, %d failed (%.4f), %d freed%n", method, distribution,
+                    minSize, maxSize, allocated, failed, allocated + failed == 0 ? 0.0 : (double) failed / (allocated + failed), freed);
+            System.out.printf("Free memory: %d units in %d blocks, largest %d%n", segmentation.freeMemory.totalSize(),
+                    segmentation.freeMemory.size(), segmentation.freeMemory.largest());
+            System.out.printf("Fragmentation: %d units internal, %.4f external, %d free units held by the allocators%n",
+                    segmentation.getInternalFragmentation(), segmentation.getExternalFragmentation(),
+                    segmentation.getFreeSize() - segmentation.freeMemory.totalSize());
+        }
+        catch (Exception e)
+        {
+            System.err.println("Simulation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
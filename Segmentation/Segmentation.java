@@ -1,31 +1,108 @@
 import java.util.*;
 
+// one heap of memory that segments are allocated from
+// each instance is independent, so a program can run several heaps; an instance is not thread-safe,
+// see ConcurrentSegmentation for a heap shared between threads
 public class Segmentation {
-    static final int MEMORY_SIZE = 5000;
+    static final int MEMORY_SIZE = 5000; // size of the default heap
 
-    static List<FreeMem> freeMemory = new ArrayList<>();
-    static List<Segment> segments = new ArrayList<>();
-    static Map<Integer, Segment> segT = new HashMap<>();
+    final int start; // lowest address of the heap
+    final int memorySize;
+    final FreeSpace freeMemory = new FreeSpace();
+    final List<Segment> segments = new ArrayList<>();
+    final SegmentTable segT = new SegmentTable(); // base and limit of each live segment by id, for address translation
+    // the live segment with each name that removal by name takes, so it does not scan: the oldest, except that
+    // segments present at the last compaction come first in base order, as they did when it sorted the list
+    final Map<String, Segment> segmentNames = new HashMap<>();
+    // allocators that round sizes up and keep their own free blocks, carved out of freeMemory
+    final BuddyAllocator buddy;
+    final SizeClassAllocator sizeClasses;
+    int rover; // where the last next fit allocation ended
+    long wasted; // units reserved beyond the sizes asked for, the internal fragmentation
+
+    // creates a heap of the default size
+    public Segmentation()
+    {
+        this(0, MEMORY_SIZE);
+    }
+
+    // creates a heap covering addresses 0 to memorySize - 1
+    public Segmentation(int memorySize)
+    {
+        this(0, memorySize);
+    }
+
+    // creates a heap covering memorySize addresses from start, all of it free
+    public Segmentation(int start, int memorySize)
+    {
+        if (start < 0 || memorySize <= 0 || start + memorySize < 0)
+        {
+            throw new IllegalArgumentException("Heap must have a positive size and lie within non-negative int addresses");
+        }
+        this.start = start;
+        this.memorySize = memorySize;
+        freeMemory.add(new FreeMem(start, memorySize));
+        buddy = new BuddyAllocator(freeMemory, Math.max(1, Integer.highestOneBit(memorySize) >> 2));
+        sizeClasses = new SizeClassAllocator(freeMemory);
+        rover = start;
+    }
+
+    // an allocator that hands out whole blocks, rounding the sizes asked for up to the block sizes it uses
+    interface BlockPool {
+        // the base of a block holding size units, or -1 if there is no room
+        int allocate(int size);
+
+        // the size of the block allocate(size) hands out
+        int blockSize(int size);
+
+        // takes back a block from allocate
+        void free(int base, int size);
+
+        // free units held in the allocator's own blocks
+        long getFreeSize();
+
+        int getLargestFree();
+
+        // copies of the free blocks, for drawing
+        List<FreeMem> getFreeBlocks();
+
+        // forgets every block, as after compaction
+        void clear();
+    }
 
     // mimic segment
     static class Segment {
         int base;
         int limit;
         String name;
+        int index; // position in segments
+        int id; // entry in the segment table, kept for as long as the segment lives
+        Segment sameName; // the next live segment with the same name, in the order removal by name takes them
+        Segment olderSameName; // the one before; for the first, the last, so either end is one step away
+        int block; // units reserved, more than limit when an allocator rounded the size up
+        BlockPool pool; // the allocator the block came from, null for freeMemory
 
         Segment(String name, int base, int limit) 
         {
             this.name = name;
             this.base = base;
             this.limit = limit;
+            this.block = limit;
         }
     }
 
     // represents free memory slot
+    // base and size are changed through FreeSpace once the slot is in freeMemory
     static class FreeMem {
         int base;
         int size;
 
+        // links used by FreeSpace to index the slot
+        FreeMem left, right;
+        FreeMem smaller, larger;
+        int maxSize;
+        int priority;
+
         FreeMem(int base, int size) 
         {
             this.base = base;
@@ -34,48 +111,43 @@ public class Segmentation {
     }
 
     // creates a segment based on the given method
-    public static Segment createSegment(String name, int size, String method) 
+    public Segment createSegment(String name, int size, String method) 
     {
-        FreeMem tobeallocated = null;
+        FreeMem tobeallocated;
+
+        if (size <= 0)
+        {
+            return null;
+        }
 
         switch (method) 
         {
-            // looks for the first available free slot
+            // looks for the first available free slot, the one with the lowest base address
             case "First-Fit": 
-                // sort the list of free memory slots by base address to ensure the first available will be chosen
-                freeMemory.sort(Comparator.comparingInt(f -> f.base));
-                for (FreeMem fm : freeMemory)
-                 {
-                    if (fm.size >= size) 
-                    {
-                        tobeallocated = fm;
-                        break;
-                    }
-                }
+                tobeallocated = freeMemory.firstFit(size);
+                break;
+            // looks for the first available free slot from where the last next fit allocation ended, wrapping around to the start
+            case "Next-Fit":
+                tobeallocated = nextFit(size);
                 break;
             // looks for the smallest slot available that will fit the segment
             case "Best-Fit": 
-                int minSize = Integer.MAX_VALUE;
-                for (FreeMem fm : freeMemory)
-                 {
-                    if (fm.size >= size && fm.size < minSize) 
-                    {
-                        tobeallocated = fm;
-                        minSize = fm.size;
-                    }
-                }
+                tobeallocated = freeMemory.bestFit(size);
                 break;
             // looks for the largest available slot that will fit the segment
             case "Worst-Fit": 
-                int maxSize = -1;
-                for (FreeMem fm : freeMemory) 
+                tobeallocated = freeMemory.worstFit(size);
+                break;
+            // rounds the size up to a power of two and takes a block from the buddy allocator
+            case "Buddy":
+                return allocateFromPool(buddy, name, size);
+            // rounds a common size up to its size class and takes a block from that class's list; larger sizes use best fit
+            case "Segregated-Fit":
+                if (SizeClassAllocator.classOf(size) >= 0)
                 {
-                    if (fm.size >= size && fm.size > maxSize) 
-                    {
-                        tobeallocated = fm;
-                        maxSize = fm.size;
-                    }
+                    return allocateFromPool(sizeClasses, name, size);
                 }
+                tobeallocated = freeMemory.bestFit(size);
                 break;
             default:
                 throw new IllegalArgumentException("Invalid method");
@@ -84,38 +156,68 @@ public class Segmentation {
         // if no appropiate free space as found, return null
         if (tobeallocated == null) 
         {
-            return null;
+            // unless the size classes were holding entirely free slabs that can be tried again
+            return sizeClasses.reclaim() ? createSegment(name, size, method) : null;
         }
 
         // create the segment and add it to the table & list of segments
         Segment newSeg = new Segment(name, tobeallocated.base, size);
-        segments.add(newSeg);
-        segT.put(segments.size() - 1, newSeg);
+        addSegment(newSeg);
 
         // check to see if the entirety of the free space was used, otherwise split it up so the extra free space is accounted for
-        if (tobeallocated.size == size) 
+        freeMemory.allocateFrom(tobeallocated, size);
+        if (method.equals("Next-Fit"))
         {
-            freeMemory.remove(tobeallocated);
-        } 
-        else
-         {
-            tobeallocated.base += size;
-            tobeallocated.size -= size;
+            rover = newSeg.base + size;
         }
 
         return newSeg;
     }
 
+    // the slot the rover is in if it fits, else the first one after the rover that fits, else the first one that fits
+    private FreeMem nextFit(int size)
+    {
+        FreeMem slot = freeMemory.floor(rover);
+        if (slot == null || slot.base + slot.size <= rover || slot.size < size)
+        {
+            slot = freeMemory.firstFitFrom(rover, size);
+        }
+        if (slot == null)
+        {
+            slot = freeMemory.firstFit(size);
+        }
+        return slot;
+    }
+
+    // takes a block from one of the allocators and creates the segment in it
+    private Segment allocateFromPool(BlockPool pool, String name, int size)
+    {
+        int base = pool.allocate(size);
+        if (base < 0 && sizeClasses.reclaim())
+        {
+            base = pool.allocate(size);
+        }
+        if (base < 0)
+        {
+            return null;
+        }
+        Segment newSeg = new Segment(name, base, size);
+        newSeg.block = pool.blockSize(size);
+        newSeg.pool = pool;
+        addSegment(newSeg);
+        return newSeg;
+    }
+
     // manually creates a segment with a given initial base address. 
     // this function is separated as it has GUI elements and will be called in the GUI file
-    public static Segmentation.Segment manualSegment(String name, int size, int base) 
+    public Segmentation.Segment manualSegment(String name, int size, int base) 
     {
         boolean overlaps = false;
 
         // check for any overlaps
         for (Segment seg : segments) 
         {
-            int segEnd = seg.base + seg.limit;
+            int segEnd = seg.base + seg.block;
             int newEnd = base + size;
             if (!(newEnd <= seg.base || base >= segEnd)) 
             {
@@ -124,109 +226,234 @@ public class Segmentation {
             }
         }
     
-        // returns null if there is overlap, the size is larger than memory, or the address is negative
-        if (overlaps || base + size > MEMORY_SIZE || base < 0) 
+        // only the slot starting at or below the base can hold the segment; memory outside the free slots
+        // may still be free, but it belongs to the buddy or size class allocator
+        FreeMem mem = freeMemory.floor(base);
+        int mEnd = base + size;
+        boolean inFreeSlot = mem != null && mEnd <= mem.base + mem.size;
+
+        // returns null if there is overlap, the range is not free, the size is larger than memory, or the address is below the heap
+        if (overlaps || !inFreeSlot || size <= 0 || base + size > start + memorySize || base < start) 
         {
             return null;
         }
     
         // create the segment
         Segment manualSeg = new Segment(name, base, size);
-        segments.add(manualSeg);
-        segT.put(segments.size() - 1, manualSeg);
+        addSegment(manualSeg);
     
         // adjust the free memory space affected and makes sure to account for the extra free space if the segment does not take up the entirety of it
-        for (Iterator<FreeMem> it = freeMemory.iterator(); it.hasNext(); ) 
-        {
-            FreeMem mem = it.next();
-            int memEnd = mem.base + mem.size;
-            int mEnd = base + size;
-            if (base >= mem.base && mEnd <= memEnd) 
-            {
-                it.remove();
-                if (base > mem.base)
-                 {
-                    freeMemory.add(new FreeMem(mem.base, base - mem.base));
-                }
-                if (mEnd < memEnd)
-                 {
-                    freeMemory.add(new FreeMem(mEnd, memEnd - mEnd));
-                }
-                break;
-            }
+        int memEnd = mem.base + mem.size;
+        freeMemory.remove(mem);
+        if (base > mem.base)
+         {
+            freeMemory.add(new FreeMem(mem.base, base - mem.base));
+        }
+        if (mEnd < memEnd)
+         {
+            freeMemory.add(new FreeMem(mEnd, memEnd - mEnd));
         }
     
         return manualSeg;
     }
 
     // removes any free memory between segments and moves it to the end of the memory
-    static void compactMemory()
+    void compactMemory()
      {
         // sorts segments so it will compact properly
         segments.sort(Comparator.comparingInt(f -> f.base));
-        int currentBase = 0;
+        int currentBase = start;
 
         // adjust the segments location so that it will all line up properly
-        for (Segment seg : segments) 
+        for (int i = 0; i < segments.size(); i++) 
         {
+            Segment seg = segments.get(i);
+            seg.index = i;
             seg.base = currentBase;
+            segT.move(seg.id, currentBase);
             currentBase += seg.limit;
+
+            // a packed segment is no longer in a buddy chunk or slab, so it gives up its rounding
+            seg.block = seg.limit;
+            seg.pool = null;
+        }
+        wasted = 0;
+
+        // relinks the names in base order, so removal by name takes the lowest based segment as the sorted list did
+        segmentNames.clear();
+        for (Segment seg : segments)
+        {
+            linkName(seg);
         }
 
         // clear all of the free memory slots and make one large one that is the total free space
         freeMemory.clear();
-        if (currentBase < MEMORY_SIZE) 
+        buddy.clear();
+        sizeClasses.clear();
+        rover = start;
+        if (currentBase < start + memorySize) 
         {
-            freeMemory.add(new FreeMem(currentBase, MEMORY_SIZE - currentBase));
+            freeMemory.add(new FreeMem(currentBase, start + memorySize - currentBase));
         }
     }
 
-    // removes a segment from memory
-    public void removeSegment(String name) 
+    // adds a new segment to the list of segments, the table and the name index
+    void addSegment(Segment seg)
     {
-        Segment toRemove = null;
+        seg.index = segments.size();
+        segments.add(seg);
+        seg.id = segT.add(seg.base, seg.limit);
+        wasted += seg.block - seg.limit;
+        linkName(seg);
+    }
 
-        // looks for the segment with the matching name
-        for (Segment seg : segments) 
+    // puts a segment at the end of the chain for its name, so it is removed by name after the others
+    private void linkName(Segment seg)
+    {
+        seg.sameName = null;
+        Segment first = segmentNames.putIfAbsent(seg.name, seg);
+        if (first == null)
+        {
+            seg.olderSameName = seg;
+        }
+        else
+        {
+            Segment last = first.olderSameName;
+            last.sameName = seg;
+            seg.olderSameName = last;
+            first.olderSameName = seg;
+        }
+    }
+
+    // takes a segment out of the list, the table and the name index without freeing its memory
+    // the last segment moves into its place, so nothing has to shift down
+    void unlinkSegment(Segment seg)
+    {
+        Segment last = segments.remove(segments.size() - 1);
+        if (last != seg)
         {
-            if (seg.name.equals(name)) 
+            last.index = seg.index;
+            segments.set(seg.index, last);
+        }
+        wasted -= seg.block - seg.limit;
+        segT.remove(seg.id);
+
+        Segment first = segmentNames.get(seg.name);
+        if (first == seg)
+        {
+            if (seg.sameName == null)
             {
-                toRemove = seg;
-                break;
+                segmentNames.remove(seg.name);
+            }
+            else
+            {
+                segmentNames.put(seg.name, seg.sameName);
+                seg.sameName.olderSameName = seg.olderSameName;
+            }
+        }
+        else
+        {
+            seg.olderSameName.sameName = seg.sameName;
+            if (seg.sameName != null)
+            {
+                seg.sameName.olderSameName = seg.olderSameName;
             }
+            else
+            {
+                first.olderSameName = seg.olderSameName;
+            }
+        }
+        seg.sameName = null;
+        seg.olderSameName = null;
+    }
+
+    // removes a segment from memory, returning false if there is none with the name
+    public boolean removeSegment(String name) 
+    {
+        // looks for the first segment with the matching name, the oldest unless compaction reordered them
+        Segment toRemove = segmentNames.get(name);
+
+        if (toRemove == null) 
+        {
+            return false;
         }
+        return removeSegment(toRemove);
+    }
 
-        if (toRemove != null) 
+    // removes a segment returned by this heap, returning false if it was already removed
+    public boolean removeSegment(Segment seg)
+    {
+        if (seg.index >= segments.size() || segments.get(seg.index) != seg)
         {
-            // removes the segment from the list and creates a new free memory slot at the location
-            segments.remove(toRemove);
-            freeMemory.add(new FreeMem(toRemove.base, toRemove.limit));
-            mergeFreeMemory();
+            return false;
         }
+        // removes the segment from the list and frees its memory, merging it with the free slots on either side
+        unlinkSegment(seg);
+        if (seg.pool != null)
+        {
+            seg.pool.free(seg.base, seg.block);
+        }
+        else
+        {
+            freeMemory.release(seg.base, seg.block);
+        }
+        return true;
+    }
+
+    // the physical address of an offset into the segment with the given id, or SegmentTable.FAULT if it is out of bounds
+    public int translate(int segId, int offset)
+    {
+        return segT.translate(segId, offset);
+    }
+
+    // free units, both in the free slots and held by the allocators
+    public long getFreeSize()
+    {
+        return freeMemory.totalSize() + buddy.getFreeSize() + sizeClasses.getFreeSize();
+    }
+
+    // units reserved for segments beyond the sizes asked for
+    public long getInternalFragmentation()
+    {
+        return wasted;
+    }
+
+    // share of the free memory outside the largest free block, 0 when it is all in one block
+    public double getExternalFragmentation()
+    {
+        long free = getFreeSize();
+        if (free == 0)
+        {
+            return 0.0;
+        }
+        int largest = Math.max(freeMemory.largest(), Math.max(buddy.getLargestFree(), sizeClasses.getLargestFree()));
+        return 1.0 - (double) largest / free;
     }
     
     // combines two free memory slots that are next to each other into one big one
     public void mergeFreeMemory() 
     {
-        // sort the free memroy slots by base address
-        freeMemory.sort(Comparator.comparingInt(f -> f.base));
-
-        // checks each free slot to see if there are any that are touching
-        for (int i = 0; i < freeMemory.size() - 1; ) 
+        // the free memory slots are already in base address order
+        List<FreeMem> ordered = new ArrayList<>(freeMemory.size());
+        for (FreeMem fm : freeMemory)
         {
-            FreeMem current = freeMemory.get(i);
-            FreeMem next = freeMemory.get(i + 1);
+            ordered.add(fm);
+        }
 
+        // checks each free slot to see if it touches the one before it
+        FreeMem current = null;
+        for (FreeMem next : ordered) 
+        {
             // if they are touching
-            if (current.base + current.size == next.base) 
+            if (current != null && current.base + current.size == next.base) 
             {
                 // combines the size and removes the next slot from memory
-                current.size += next.size;
-                freeMemory.remove(i + 1);
+                freeMemory.remove(next);
+                freeMemory.update(current, current.base, current.size + next.size);
             } 
             else 
             {
-                i++;
+                current = next;
             }
         }
     }
@@ -9,6 +9,7 @@ public class SegmentationGUI extends JFrame {
     private JTextField sizeField;
     private JComboBox<String> methodBox;
     private JComboBox<String> removeSegmentBox;
+    private JLabel fragmentationLabel;
     private MemoryPanel memoryPanel;
 
     public SegmentationGUI() {
@@ -28,7 +29,7 @@ public class SegmentationGUI extends JFrame {
         // input fields
         nameField = new JTextField();
         sizeField = new JTextField();
-        String[] methods = { "First-Fit", "Best-Fit", "Worst-Fit", "Manual" };
+        String[] methods = { "First-Fit", "Next-Fit", "Best-Fit", "Worst-Fit", "Buddy", "Segregated-Fit", "Manual" };
         methodBox = new JComboBox<>(methods);
         JButton allocateButton = new JButton("Allocate Segment");
 
@@ -67,6 +68,12 @@ public class SegmentationGUI extends JFrame {
         gbc.gridx = 4; gbc.gridwidth = 1;
         inputPanel.add(compactButton, gbc);
 
+        // internal and external fragmentation of the memory
+        fragmentationLabel = new JLabel();
+        gbc.gridx = 5; gbc.gridwidth = 5;
+        inputPanel.add(fragmentationLabel, gbc);
+        updateFragmentationLabel();
+
         add(inputPanel, BorderLayout.NORTH);
 
         // memory panel (shows current memory allocation)
@@ -106,7 +113,7 @@ public class SegmentationGUI extends JFrame {
                     // make sure the input is valid
                     try {
                         int base = Integer.parseInt(baseInput);
-                        seg = Segmentation.manualSegment(name, size, base);
+                        seg = segmentation.manualSegment(name, size, base);
                         if (seg == null) {
                             // if the segment overlaps with another or exceeds the memory limit
                             JOptionPane.showMessageDialog(null, "Invalid manual allocation: overlaps or out of bounds.");
@@ -120,7 +127,7 @@ public class SegmentationGUI extends JFrame {
                 } 
                 else {
                     // create a segment
-                    seg = Segmentation.createSegment(name, size, method);
+                    seg = segmentation.createSegment(name, size, method);
                     if (seg == null) {
                         // the segment could not fit anywhere
                         JOptionPane.showMessageDialog(null, "No suitable block found for " + name + ". Try again after compacting.");
@@ -133,6 +140,7 @@ public class SegmentationGUI extends JFrame {
 
                 // refreshes the remove segment dropdown so the newly added segment is included
                 updateRemoveSegmentBox();
+                updateFragmentationLabel();
 
                 // reset input fields
                 nameField.setText("");
@@ -151,14 +159,16 @@ public class SegmentationGUI extends JFrame {
                     segmentation.removeSegment(selectedSegment);
                     memoryPanel.repaint();
                     updateRemoveSegmentBox();
+                    updateFragmentationLabel();
                 }
             }
         });
 
         // compacts the segments in the memory
         compactButton.addActionListener(e -> {
-            Segmentation.compactMemory();
+            segmentation.compactMemory();
             memoryPanel.repaint();
+            updateFragmentationLabel();
         });
 
         setVisible(true);
@@ -168,11 +178,17 @@ public class SegmentationGUI extends JFrame {
     private void updateRemoveSegmentBox() {
         DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) removeSegmentBox.getModel();
         model.removeAllElements();
-        for (Segmentation.Segment seg : Segmentation.segments) {
+        for (Segmentation.Segment seg : segmentation.segments) {
             model.addElement(seg.name);
         }
     }
 
+    // shows the units lost to rounding inside segments and how much of the free memory is outside the largest free block
+    private void updateFragmentationLabel() {
+        fragmentationLabel.setText(String.format("Internal fragmentation: %d units   External fragmentation: %.1f%%",
+                segmentation.getInternalFragmentation(), segmentation.getExternalFragmentation() * 100));
+    }
+
     // adjust the MemoryPanel class for drawing the memory
     class MemoryPanel extends JPanel {
         @Override
@@ -181,27 +197,45 @@ public class SegmentationGUI extends JFrame {
             int panelHeight = getHeight();
             int panelWidth = getWidth();
 
-            double scale = (double) panelHeight / Segmentation.MEMORY_SIZE;
+            double scale = (double) panelHeight / segmentation.memorySize;
 
             g.setColor(Color.WHITE);
             g.fillRect(0, 0, panelWidth, panelHeight);
 
-            // draw segments
-            for (Segmentation.Segment seg : Segmentation.segments) {
-                int y = (int) (seg.base * scale);
-                int height = (int) (seg.limit * scale);
+            // draw segments, with the part of the block rounding left unused in orange
+            for (Segmentation.Segment seg : segmentation.segments) {
+                int y = (int) ((seg.base - segmentation.start) * scale);
+                int height = (int) (seg.block * scale);
+                int used = (int) (seg.limit * scale);
 
-                g.setColor(Color.YELLOW);
+                g.setColor(Color.ORANGE);
                 g.fillRect(0, y, panelWidth, height);
+                g.setColor(Color.YELLOW);
+                g.fillRect(0, y, panelWidth, used);
                 g.setColor(Color.BLACK);
                 g.drawRect(0, y, panelWidth, height);
-                g.drawString(seg.name + " (" + seg.limit + ")", 5, y + 15);
+                String label = seg.block == seg.limit ? seg.name + " (" + seg.limit + ")" : seg.name + " (" + seg.limit + " of " + seg.block + ")";
+                g.drawString(label, 5, y + 15);
+            }
+
+            // draw blocks the buddy and size class allocators are holding free
+            for (Segmentation.BlockPool pool : new Segmentation.BlockPool[] { segmentation.buddy, segmentation.sizeClasses }) {
+                for (Segmentation.FreeMem free : pool.getFreeBlocks()) {
+                    int y = (int) ((free.base - segmentation.start) * scale);
+                    int height = (int) (free.size * scale);
+
+                    g.setColor(Color.PINK);
+                    g.fillRect(0, y, panelWidth, height);
+                    g.setColor(Color.BLACK);
+                    g.drawRect(0, y, panelWidth, height);
+                    g.drawString("Held free (" + free.size + ")", 5, y + 15);
+                }
             }
 
             // draw free memory
             g.setColor(Color.LIGHT_GRAY);
-            for (Segmentation.FreeMem free : Segmentation.freeMemory) {
-                int y = (int) (free.base * scale);
+            for (Segmentation.FreeMem free : segmentation.freeMemory) {
+                int y = (int) ((free.base - segmentation.start) * scale);
                 int height = (int) (free.size * scale);
 
                 g.fillRect(0, y, panelWidth, height);
@@ -214,8 +248,6 @@ public class SegmentationGUI extends JFrame {
     }
 
     public static void main(String[] args) {
-        // add free space to the entire size of memory
-        Segmentation.freeMemory.add(new Segmentation.FreeMem(0, Segmentation.MEMORY_SIZE));
         SwingUtilities.invokeLater(SegmentationGUI::new);
     }
 }
@@ -0,0 +1,196 @@
+import java.util.*;
+
+// segregated fit: each common size has its own list of free blocks, so allocating one is a pop off a stack
+// requests are rounded up to the next size class, which wastes at most a third of a block. when a class runs
+// out it takes a slab of SLAB_BLOCKS blocks from the heap's free space, or as many as the largest free slot
+// holds. freed blocks go back on their class's stack rather than to the heap, so memory one class holds free
+// cannot serve another until reclaim gives back the slabs that are entirely free
+public class SizeClassAllocator implements Segmentation.BlockPool {
+    static final int[] CLASSES = { 16, 24, 32, 48, 64, 96, 128, 192, 256, 384, 512 };
+    static final int SLAB_BLOCKS = 8;
+
+    private final FreeSpace freeMemory;
+    private final int[][] stacks = new int[CLASSES.length][]; // bases of each class's free blocks
+    private final int[] counts = new int[CLASSES.length];
+    private final TreeMap<Integer, Integer> slabs = new TreeMap<>(); // base to number of blocks of each slab
+    private long freeSize;
+
+    public SizeClassAllocator(FreeSpace freeMemory)
+    {
+        this.freeMemory = freeMemory;
+        for (int c = 0; c < CLASSES.length; c++)
+        {
+            stacks[c] = new int[SLAB_BLOCKS];
+        }
+    }
+
+    // the index of the smallest class that holds size units, or -1 if size is larger than every class
+    static int classOf(int size)
+    {
+        for (int c = 0; c < CLASSES.length; c++)
+        {
+            if (size <= CLASSES[c])
+            {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int blockSize(int size)
+    {
+        int c = classOf(size);
+        if (c < 0)
+        {
+            throw new IllegalArgumentException("Size " + size + " is larger than every size class");
+        }
+        return CLASSES[c];
+    }
+
+    @Override
+    public int allocate(int size)
+    {
+        int c = classOf(size);
+        if (size <= 0 || c < 0 || (counts[c] == 0 && !refill(c)))
+        {
+            return -1;
+        }
+        freeSize -= CLASSES[c];
+        return stacks[c][--counts[c]];
+    }
+
+    // carves a slab for class c out of the heap's free space, returning false if not even one block fits
+    private boolean refill(int c)
+    {
+        int blocks = Math.min(SLAB_BLOCKS, freeMemory.largest() / CLASSES[c]);
+        if (blocks == 0)
+        {
+            return false;
+        }
+        Segmentation.FreeMem slot = freeMemory.bestFit(blocks * CLASSES[c]);
+        int base = slot.base;
+        freeMemory.allocateFrom(slot, blocks * CLASSES[c]);
+        slabs.put(base, blocks);
+
+        // pushed highest first, so the slab is handed out in address order
+        for (int i = blocks - 1; i >= 0; i--)
+        {
+            push(c, base + i * CLASSES[c]);
+        }
+        return true;
+    }
+
+    @Override
+    public void free(int base, int size)
+    {
+        int c = classOf(size);
+        if (c < 0 || CLASSES[c] != size)
+        {
+            throw new IllegalArgumentException("Size " + size + " is not a size class");
+        }
+        push(c, base);
+    }
+
+    private void push(int c, int base)
+    {
+        if (counts[c] == stacks[c].length)
+        {
+            stacks[c] = Arrays.copyOf(stacks[c], stacks[c].length * 2);
+        }
+        stacks[c][counts[c]++] = base;
+        freeSize += CLASSES[c];
+    }
+
+    // gives every slab whose blocks are all free back to the heap, returning false if there were none
+    // this sorts each class's stack, so it is meant for when an allocation has failed, not for every free
+    public boolean reclaim()
+    {
+        boolean released = false;
+        for (int c = 0; c < CLASSES.length && freeSize > 0; c++)
+        {
+            int[] stack = stacks[c];
+            Arrays.sort(stack, 0, counts[c]);
+            int kept = 0;
+            int i = 0;
+            while (i < counts[c])
+            {
+                // the free blocks of one slab are next to each other once sorted
+                Map.Entry<Integer, Integer> slab = slabs.floorEntry(stack[i]);
+                int slabEnd = slab.getKey() + slab.getValue() * CLASSES[c];
+                int j = i;
+                while (j < counts[c] && stack[j] < slabEnd)
+                {
+                    j++;
+                }
+                if (j - i == slab.getValue())
+                {
+                    slabs.remove(slab.getKey());
+                    freeMemory.release(slab.getKey(), slabEnd - slab.getKey());
+                    freeSize -= slabEnd - slab.getKey();
+                    released = true;
+                }
+                else
+                {
+                    while (i < j)
+                    {
+                        stack[kept++] = stack[i++];
+                    }
+                }
+                i = j;
+            }
+            counts[c] = kept;
+
+            // reversed, so the lowest blocks are handed out first again
+            for (int lo = 0, hi = kept - 1; lo < hi; lo++, hi--)
+            {
+                int swap = stack[lo];
+                stack[lo] = stack[hi];
+                stack[hi] = swap;
+            }
+        }
+        return released;
+    }
+
+    @Override
+    public long getFreeSize()
+    {
+        return freeSize;
+    }
+
+    @Override
+    public int getLargestFree()
+    {
+        for (int c = CLASSES.length - 1; c >= 0; c--)
+        {
+            if (counts[c] > 0)
+            {
+                return CLASSES[c];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public List<Segmentation.FreeMem> getFreeBlocks()
+    {
+        List<Segmentation.FreeMem> blocks = new ArrayList<>();
+        for (int c = 0; c < CLASSES.length; c++)
+        {
+            for (int i = 0; i < counts[c]; i++)
+            {
+                blocks.add(new Segmentation.FreeMem(stacks[c][i], CLASSES[c]));
+            }
+        }
+        return blocks;
+    }
+
+    // forgets every free block, as after compaction has rebuilt the heap's free space
+    @Override
+    public void clear()
+    {
+        Arrays.fill(counts, 0);
+        slabs.clear();
+        freeSize = 0;
+    }
+}
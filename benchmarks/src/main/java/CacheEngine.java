@@ -0,0 +1,51 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import benchmarks.Engines;
+
+/**
+ * Exposes {@link ClockCache} to the benchmarks, which cannot name classes in the unnamed package,
+ * alongside a synchronized access-order LinkedHashMap bounded the same way for comparison.
+ */
+public class CacheEngine implements Engines.KeyValueCache {
+
+    private final ClockCache<Integer, Integer> clock;
+    private final Map<Integer, Integer> lru;
+
+    public CacheEngine(String implementation, int capacity) {
+        switch (implementation) {
+            case "ClockCache":
+                this.clock = new ClockCache<>(capacity);
+                this.lru = null;
+                break;
+            case "LinkedHashMap":
+                this.clock = null;
+                this.lru = Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(capacity * 2, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                        return size() > capacity;
+                    }
+                });
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown cache: " + implementation);
+        }
+    }
+
+    @Override
+    public Integer get(Integer key) {
+        return clock != null ? clock.get(key) : lru.get(key);
+    }
+
+    @Override
+    public void put(Integer key, Integer value) {
+        if (clock != null) {
+            clock.put(key, value);
+        } else {
+            lru.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+import benchmarks.Engines;
+
+/**
+ * Exposes {@link ClockAlgorithm} to the benchmarks, which cannot name classes in the unnamed package.
+ */
+public class ClockEngine implements Engines.PageEngine {
+
+    private final ClockAlgorithm clock;
+
+    public ClockEngine(int numFrames) {
+        this.clock = new ClockAlgorithm(numFrames);
+    }
+
+    @Override
+    public int access(int pageNumber) {
+        return clock.access(pageNumber);
+    }
+
+    @Override
+    public String requestPage(int pageNumber) {
+        return clock.requestPage(pageNumber);
+    }
+}
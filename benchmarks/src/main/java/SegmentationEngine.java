@@ -0,0 +1,133 @@
+import benchmarks.Engines;
+import java.util.*;
+
+// exposes Segmentation to the benchmarks, which cannot name classes in the unnamed package
+// builds memory layouts directly in a heap's lists, so layouts far larger than MEMORY_SIZE can be measured
+public class SegmentationEngine implements Engines.SegmentEngine {
+    private static final int SEGMENT_SIZE = 4;
+    private static final int REQUEST_SIZE = 4; // smaller than every hole, so an allocation never uses a hole up
+    private static final int STRIDE = SEGMENT_SIZE + 8 + 64; // room for a segment and the largest hole
+
+    private static final int CHURN_MIN_SIZE = 8;
+    private static final int CHURN_SIZES = 256; // churn sizes run from CHURN_MIN_SIZE up by this many
+    private static final int CHURN_STRIDE = 512; // memory per live churn segment, about four times its mean size
+
+    private Segmentation segmentation = new Segmentation();
+    private Segmentation.FreeMem[] holes = new Segmentation.FreeMem[0];
+    private Segmentation.Segment[] segments = new Segmentation.Segment[0];
+    private String churnMethod;
+    private int random = 1;
+
+    public SegmentationEngine()
+    {
+    }
+
+    // segment i sits at i * STRIDE and is followed by a hole of 8 to 71 units, sized so best and worst fit pick different holes
+    @Override
+    public void reset(int count, boolean shuffled)
+    {
+        segmentation = new Segmentation(Math.max(1, count * STRIDE));
+        segmentation.freeMemory.clear();
+        if (segments.length != count)
+        {
+            segments = new Segmentation.Segment[count];
+            holes = new Segmentation.FreeMem[count];
+        }
+        for (int i = 0; i < count; i++)
+        {
+            segments[i] = new Segmentation.Segment("S" + i, i * STRIDE, SEGMENT_SIZE);
+            holes[i] = new Segmentation.FreeMem(i * STRIDE + SEGMENT_SIZE, 8 + (int) ((i * 2654435761L) & 63));
+            segmentation.freeMemory.add(holes[i]);
+        }
+        List<Segmentation.Segment> order = Arrays.asList(segments.clone());
+        if (shuffled)
+        {
+            Collections.shuffle(order, new Random(42));
+        }
+        for (Segmentation.Segment seg : order)
+        {
+            segmentation.addSegment(seg);
+        }
+    }
+
+    @Override
+    public int createAndUndo(String method)
+    {
+        Segmentation.Segment seg = segmentation.createSegment("new", REQUEST_SIZE, method);
+
+        // the hole the segment came from now starts just past it; give the space back
+        Segmentation.FreeMem hole = holes[seg.base / STRIDE];
+        segmentation.freeMemory.update(hole, hole.base - REQUEST_SIZE, hole.size + REQUEST_SIZE);
+        segmentation.unlinkSegment(seg);
+        return seg.base;
+    }
+
+    @Override
+    public void removeSegment(int index)
+    {
+        segmentation.removeSegment("S" + index);
+    }
+
+    @Override
+    public void mergeFreeMemory()
+    {
+        segmentation.mergeFreeMemory();
+    }
+
+    @Override
+    public void compactMemory()
+    {
+        segmentation.compactMemory();
+    }
+
+    @Override
+    public void resetChurn(int count, String method)
+    {
+        segmentation = new Segmentation(Math.max(1, count * CHURN_STRIDE));
+        segments = new Segmentation.Segment[count];
+        churnMethod = method;
+        random = 1;
+        for (int i = 0; i < count; i++)
+        {
+            segments[i] = segmentation.createSegment("C", nextChurnSize(), method);
+        }
+    }
+
+    @Override
+    public int churn()
+    {
+        int i = nextRandom() % segments.length;
+        if (segments[i] != null)
+        {
+            segmentation.removeSegment(segments[i]);
+        }
+        segments[i] = segmentation.createSegment("C", nextChurnSize(), churnMethod);
+        return segments[i] == null ? -1 : segments[i].base;
+    }
+
+    @Override
+    public int translate(int segId, int offset)
+    {
+        return segmentation.translate(segId, offset);
+    }
+
+    @Override
+    public int translate(int[] segIds, int[] offsets, int[] out)
+    {
+        return segmentation.segT.translate(segIds, offsets, out);
+    }
+
+    private int nextChurnSize()
+    {
+        return CHURN_MIN_SIZE + nextRandom() % CHURN_SIZES;
+    }
+
+    // xorshift, so the measured calls allocate nothing of their own
+    private int nextRandom()
+    {
+        random ^= random << 13;
+        random ^= random >>> 17;
+        random ^= random << 5;
+        return random & Integer.MAX_VALUE;
+    }
+}
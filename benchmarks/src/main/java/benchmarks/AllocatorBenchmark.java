@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the segment allocation methods on the same steady churn: each call frees a random live
+ * segment and allocates a replacement of 8 to 263 units, so the number of live segments holds steady
+ * while the free memory fragments the way each method leaves it. SegmentWorkload reports the
+ * fragmentation that goes with these speeds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocatorBenchmark {
+
+    @Param({ "First-Fit", "Next-Fit", "Best-Fit", "Worst-Fit", "Buddy", "Segregated-Fit" })
+    public String method;
+
+    @Param({ "1000", "100000" })
+    public int segments;
+
+    private Engines.SegmentEngine segmentation;
+
+    @Setup
+    public void setUp() {
+        segmentation = Engines.segmentation();
+        segmentation.resetChurn(segments, method);
+    }
+
+    @Benchmark
+    public int churn() {
+        return segmentation.churn();
+    }
+}
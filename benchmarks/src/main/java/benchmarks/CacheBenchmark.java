@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ClockCache with a synchronized access-order LinkedHashMap holding the same number of
+ * entries. Each call looks a key up and puts it on a miss, as a read-through cache does. Keys are
+ * boxed when the trace is built, so neither cache pays for boxing in the measured call.
+ * Workloads, both over 4 times as many keys as the cache holds:
+ *   skewed   the cube of a uniform draw picks the key, so a few keys take most requests and most hit
+ *   uniform  every key equally likely, so three requests in four miss and evict
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 20; // Power of two so the index wraps with a mask
+
+    @Param({ "ClockCache", "LinkedHashMap" })
+    public String cache;
+
+    @Param({ "1024", "65536" })
+    public int capacity;
+
+    @Param({ "skewed", "uniform" })
+    public String workload;
+
+    private Engines.KeyValueCache engine;
+    private Integer[] trace;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        int keys = capacity * 4;
+        trace = new Integer[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            switch (workload) {
+                case "skewed":
+                    double u = random.nextDouble();
+                    trace[i] = (int) (u * u * u * keys);
+                    break;
+                case "uniform":
+                    trace[i] = random.nextInt(keys);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown workload: " + workload);
+            }
+        }
+
+        // Start full, as in the steady state
+        engine = Engines.cache(cache, capacity);
+        for (int key = 0; key < capacity; key++) {
+            engine.put(key, key);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer getOrPut() {
+        Integer key = trace[next];
+        next = (next + 1) & (TRACE_LENGTH - 1);
+        Integer value = engine.get(key);
+        if (value == null) {
+            engine.put(key, key);
+            value = key;
+        }
+        return value;
+    }
+}
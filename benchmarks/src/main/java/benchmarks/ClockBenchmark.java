@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single requests to the clock engine, through both the message-building requestPage
+ * and the allocation-free access path. Run with -prof gc to see the allocation per request.
+ * Workloads:
+ *   hit    every request is for a resident page, chosen at random
+ *   fault  requests spread uniformly over 16 times as many pages as frames, so most fault
+ *   scan   pages in order over one more page than there are frames, so every request faults
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 20; // Power of two so the index wraps with a mask
+
+    @Param({ "8", "1024", "65536", "1048576" })
+    public int frames;
+
+    @Param({ "hit", "fault", "scan" })
+    public String workload;
+
+    private Engines.PageEngine clock;
+    private int[] trace;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        trace = new int[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            switch (workload) {
+                case "hit":
+                    trace[i] = random.nextInt(frames);
+                    break;
+                case "fault":
+                    trace[i] = random.nextInt(frames * 16);
+                    break;
+                case "scan":
+                    trace[i] = i % (frames + 1);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown workload: " + workload);
+            }
+        }
+
+        // Start with every frame full, as in the steady state
+        clock = Engines.clock(frames);
+        for (int page = 0; page < frames; page++) {
+            clock.access(page);
+        }
+        next = 0;
+    }
+
+    private int nextPage() {
+        int page = trace[next];
+        next = (next + 1) & (TRACE_LENGTH - 1);
+        return page;
+    }
+
+    @Benchmark
+    public int access() {
+        return clock.access(nextPage());
+    }
+
+    @Benchmark
+    public String requestPage() {
+        return clock.requestPage(nextPage());
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+/**
+ * Loads the adapters that expose the engines to the benchmarks.
+ * The engines live in the unnamed package, which code in a named package cannot refer to, so
+ * small adapters in the unnamed package implement the interfaces below and are found by name.
+ * Reflection is used only when a benchmark is set up; the measured calls are plain interface calls.
+ */
+public final class Engines {
+
+    private Engines() {
+    }
+
+    /**
+     * The page replacement calls under measurement.
+     */
+    public interface PageEngine {
+        int access(int pageNumber);
+
+        String requestPage(int pageNumber);
+    }
+
+    /**
+     * The segmentation calls under measurement, plus the set-up they need.
+     */
+    public interface SegmentEngine {
+        /**
+         * Replaces the memory layout with the given number of segments, each followed by a free hole.
+         * @param shuffled Whether the segment list is left out of address order, as it is after frees and re-allocations.
+         */
+        void reset(int segments, boolean shuffled);
+
+        /**
+         * Allocates a small segment with a fit method, then puts the memory layout back as it was.
+         * @return The base address the segment was given.
+         */
+        int createAndUndo(String method);
+
+        void removeSegment(int index);
+
+        void mergeFreeMemory();
+
+        void compactMemory();
+
+        /**
+         * Replaces the memory with one holding the given number of live segments of random sizes, allocated with a method.
+         */
+        void resetChurn(int segments, String method);
+
+        /**
+         * Frees a random live segment and allocates one of a random size in its place with the method given to resetChurn.
+         * @return The base address of the new segment, or -1 if it did not fit.
+         */
+        int churn();
+
+        /**
+         * Translates an offset into the segment with the given id of the layout from reset.
+         * @return The physical address, or -1 for a segmentation fault.
+         */
+        int translate(int segId, int offset);
+
+        /**
+         * Translates a batch of logical addresses, as in a trace replay.
+         * @return The number that faulted.
+         */
+        int translate(int[] segIds, int[] offsets, int[] out);
+    }
+
+    /**
+     * A bounded key-value cache, either ClockCache or the LinkedHashMap it is compared with.
+     */
+    public interface KeyValueCache {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+
+    static PageEngine clock(int numFrames) {
+        return (PageEngine) create("ClockEngine", numFrames);
+    }
+
+    static SegmentEngine segmentation() {
+        return (SegmentEngine) create("SegmentationEngine");
+    }
+
+    static KeyValueCache cache(String implementation, int capacity) {
+        return (KeyValueCache) create("CacheEngine", implementation, capacity);
+    }
+
+    private static Object create(String className, Object... args) {
+        try {
+            Class<?> type = Class.forName(className);
+            Class<?>[] parameterTypes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                parameterTypes[i] = args[i] instanceof Integer ? int.class : args[i].getClass();
+            }
+            return type.getConstructor(parameterTypes).newInstance(args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create benchmark adapter " + className, e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the segmentation operations against memory holding a given number of segments,
+ * each followed by a free hole. Each benchmark state owns its Segmentation heap, which is not
+ * thread-safe, so these benchmarks must run single-threaded.
+ * Operations that change the layout for good (remove and compact) rebuild it before every call;
+ * the rebuild is not timed, but at small segment counts the per-call overhead of JMH dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentationBenchmark {
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int segments;
+
+    private Engines.SegmentEngine segmentation;
+
+    /**
+     * Layout shared by the benchmarks that leave it unchanged.
+     */
+    @State(Scope.Thread)
+    public static class Steady {
+        @Setup(Level.Trial)
+        public void setUp(SegmentationBenchmark benchmark) {
+            benchmark.segmentation.reset(benchmark.segments, false);
+        }
+    }
+
+    /**
+     * Layout rebuilt before every call, for the benchmarks that change it.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        @Setup(Level.Invocation)
+        public void setUp(SegmentationBenchmark benchmark) {
+            benchmark.segmentation.reset(benchmark.segments, true);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        segmentation = Engines.segmentation();
+    }
+
+    @Benchmark
+    public int createFirstFit(Steady layout) {
+        return segmentation.createAndUndo("First-Fit");
+    }
+
+    @Benchmark
+    public int createNextFit(Steady layout) {
+        return segmentation.createAndUndo("Next-Fit");
+    }
+
+    @Benchmark
+    public int createBestFit(Steady layout) {
+        return segmentation.createAndUndo("Best-Fit");
+    }
+
+    @Benchmark
+    public int createWorstFit(Steady layout) {
+        return segmentation.createAndUndo("Worst-Fit");
+    }
+
+    /**
+     * Nothing is adjacent, so this measures one full pass over the free slots.
+     * Removing a segment no longer calls it, since the freed space merges with its neighbors directly.
+     */
+    @Benchmark
+    public void mergeFreeMemory(Steady layout) {
+        segmentation.mergeFreeMemory();
+    }
+
+    /**
+     * Removes the middle segment, whose space merges with the hole after it.
+     */
+    @Benchmark
+    public void removeSegment(Fresh layout) {
+        segmentation.removeSegment(segments / 2);
+    }
+
+    @Benchmark
+    public void compactMemory(Fresh layout) {
+        segmentation.compactMemory();
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures translating (segment id, offset) pairs into physical addresses, one call at a time and
+ * in batches as a trace replay does. Segments are the 4-unit segments of the SegmentationBenchmark
+ * layout, so segment i has id i, and offsets run from 0 to 4, so a fifth of them fault.
+ * Workloads:
+ *   local    runs of requests within a few neighboring segments, which the lookup cache serves
+ *   uniform  every request for a segment chosen at random, so a large table mostly misses the cache
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslationBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 16; // Power of two so the index wraps with a mask
+
+    @Param({ "16", "1000", "1000000" })
+    public int segments;
+
+    @Param({ "local", "uniform" })
+    public String workload;
+
+    private Engines.SegmentEngine segmentation;
+    private int[] segIds;
+    private int[] offsets;
+    private int[] out;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        segmentation = Engines.segmentation();
+        segmentation.reset(segments, false);
+
+        SplittableRandom random = new SplittableRandom(42);
+        segIds = new int[TRACE_LENGTH];
+        offsets = new int[TRACE_LENGTH];
+        out = new int[TRACE_LENGTH];
+        int home = 0;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            switch (workload) {
+                case "local":
+                    if (random.nextInt(64) == 0) {
+                        home = random.nextInt(segments);
+                    }
+                    segIds[i] = Math.min(segments - 1, home + random.nextInt(4));
+                    break;
+                case "uniform":
+                    segIds[i] = random.nextInt(segments);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown workload: " + workload);
+            }
+            offsets[i] = random.nextInt(5);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int translate() {
+        int i = next;
+        next = (next + 1) & (TRACE_LENGTH - 1);
+        return segmentation.translate(segIds[i], offsets[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACE_LENGTH)
+    public int translateBatch() {
+        return segmentation.translate(segIds, offsets, out);
+    }
+}